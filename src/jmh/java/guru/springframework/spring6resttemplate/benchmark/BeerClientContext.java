@@ -0,0 +1,57 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.Spring6ResttemplateApplication;
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against a {@link BeerStubServer}, so benchmarks exercise the real
+ * {@code RestTemplateBuilderConfig} wiring, interceptors and request factory.
+ */
+class BeerClientContext implements AutoCloseable {
+
+    private final BeerStubServer stubServer;
+    private final ConfigurableApplicationContext context;
+
+    BeerClientContext(String... properties) throws IOException {
+        this(new BeerStubServer(), properties);
+    }
+
+    BeerClientContext(BeerStubServer stubServer, String... properties) {
+        this.stubServer = stubServer;
+
+        List<String> args = new ArrayList<>(List.of(
+                "--rest.template.rootUrl=" + stubServer.rootUrl(),
+                "--spring.security.oauth2.client.provider.springauth.token-uri=" + stubServer.tokenUri(),
+                "--server.port=0",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        this.context = new SpringApplicationBuilder(Spring6ResttemplateApplication.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    BeerClient beerClient() {
+        return context.getBean(BeerClient.class);
+    }
+
+    BeerStubServer stubServer() {
+        return stubServer;
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        stubServer.close();
+    }
+}
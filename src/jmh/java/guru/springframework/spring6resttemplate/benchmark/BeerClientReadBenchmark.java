@@ -0,0 +1,60 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerClientReadBenchmark {
+
+    @Param({"25", "250", "2500"})
+    int pageSize;
+
+    BeerClientContext context;
+    BeerClient beerClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BeerClientContext();
+        beerClient = context.beerClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listBeers() {
+        return beerClient.listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1), Optional.of(pageSize));
+    }
+
+    @Benchmark
+    public BeerPageSummary listBeersStreaming(Blackhole blackhole) {
+        return beerClient.listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1), Optional.of(pageSize),
+                blackhole::consume);
+    }
+}
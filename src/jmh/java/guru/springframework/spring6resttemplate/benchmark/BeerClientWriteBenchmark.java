@@ -0,0 +1,70 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerClientWriteBenchmark {
+
+    @Param({"true", "false"})
+    boolean readAfterWrite;
+
+    BeerClientContext context;
+    BeerClient beerClient;
+    BeerDTO newBeer;
+    BeerDTO existingBeer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BeerClientContext("rest.template.readAfterWrite=" + readAfterWrite);
+        beerClient = context.beerClient();
+
+        newBeer = BeerDTO.builder()
+                .beerName("Benchmark Beer")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("123456")
+                .quantityOnHand(100)
+                .price(new BigDecimal("12.99"))
+                .build();
+        existingBeer = newBeer.toBuilder().id(UUID.randomUUID()).version(1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> createBeer() {
+        return beerClient.createBeer(newBeer);
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> updateBeer() {
+        return beerClient.updateBeer(existingBeer);
+    }
+}
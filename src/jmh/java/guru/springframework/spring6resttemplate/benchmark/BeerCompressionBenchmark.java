@@ -0,0 +1,68 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming {@code listBeers} over a link throttled to {@code bytesPerSecond}, with and without gzip. JSON only, so
+ * the numbers are not mixed up with the Smile negotiation. Bytes on the wire per request are printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerCompressionBenchmark {
+
+    @Param({"true", "false"})
+    boolean compression;
+
+    @Param({"250", "2500"})
+    int pageSize;
+
+    @Param({"10000000"})
+    long bytesPerSecond;
+
+    BeerClientContext context;
+    BeerClient beerClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BeerClientContext(new BeerStubServer(bytesPerSecond),
+                "rest.template.compression.enabled=" + compression,
+                "rest.template.smile.enabled=false");
+        beerClient = context.beerClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BeerStubServer stubServer = context.stubServer();
+        System.out.printf("%ncompression=%s pageSize=%d: %d bytes on the wire per request%n",
+                compression, pageSize, stubServer.bytesSent() / Math.max(1, stubServer.requests()));
+        context.close();
+    }
+
+    @Benchmark
+    public BeerPageSummary listBeers(Blackhole blackhole) {
+        return beerClient.listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1), Optional.of(pageSize),
+                blackhole::consume);
+    }
+}
@@ -0,0 +1,56 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode cost of one beer page as JSON and as Smile, without any HTTP in between. The payload size per format is
+ * printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerPageCodecBenchmark {
+
+    @Param({"json", "smile"})
+    String format;
+
+    @Param({"25", "250", "2500"})
+    int pageSize;
+
+    ObjectMapper objectMapper;
+    byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = format.equals("smile")
+                ? Jackson2ObjectMapperBuilder.smile().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        payload = BeerStubServer.serialize(objectMapper, BeerStubServer.beerPage(pageSize));
+        System.out.printf("%n%s page of %d beers: %d bytes%n", format, pageSize, payload.length);
+    }
+
+    @Benchmark
+    public BeerDTOPageImpl decodePage() throws IOException {
+        return objectMapper.readValue(payload, BeerDTOPageImpl.class);
+    }
+}
@@ -0,0 +1,87 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.client.BeerClient;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventory-sync style updates, sent as full PUTs or as merge patches against the previous version. Of every 100
+ * updates 50 change the quantity, 15 the price, 10 both, 5 the name and 20 nothing. Request bytes on the wire and
+ * requests per update are printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerPatchBenchmark {
+
+    private static final int UPDATES = 1024;
+
+    @Param({"put", "patch"})
+    String mode;
+
+    BeerClientContext context;
+    BeerClient beerClient;
+    BeerDTO[] baselines = new BeerDTO[UPDATES];
+    BeerDTO[] updates = new BeerDTO[UPDATES];
+    int next;
+    long operations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BeerClientContext("rest.template.readAfterWrite=false");
+        beerClient = context.beerClient();
+
+        Random random = new Random(42);
+        for (int i = 0; i < UPDATES; i++) {
+            BeerDTO baseline = BeerStubServer.beer(i);
+            BeerDTO.BeerDTOBuilder updated = baseline.toBuilder();
+            int kind = random.nextInt(100);
+            if (kind < 50) {
+                updated.quantityOnHand(baseline.getQuantityOnHand() + 1 + random.nextInt(50));
+            } else if (kind < 65) {
+                updated.price(baseline.getPrice().add(BigDecimal.ONE));
+            } else if (kind < 75) {
+                updated.quantityOnHand(baseline.getQuantityOnHand() + 1).price(baseline.getPrice().add(BigDecimal.ONE));
+            } else if (kind < 80) {
+                updated.beerName(baseline.getBeerName() + " Reserve");
+            }
+            baselines[i] = baseline;
+            updates[i] = updated.build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BeerStubServer stubServer = context.stubServer();
+        System.out.printf("%nmode=%s: %d request bytes and %.2f requests per update%n", mode,
+                stubServer.bytesReceived() / Math.max(1, operations), (double) stubServer.requests() / Math.max(1, operations));
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<BeerDTO> update() {
+        int i = next++ & (UPDATES - 1);
+        operations++;
+        return mode.equals("patch") ? beerClient.patchBeer(baselines[i], updates[i]) : beerClient.updateBeer(updates[i]);
+    }
+}
@@ -0,0 +1,221 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stand-in for the beer service and its authorization server. Responses are serialized once and
+ * replayed, so the benchmarks measure the client rather than the stub.
+ */
+public class BeerStubServer implements AutoCloseable {
+
+    static final String BEER_PATH = "/api/v1/beer";
+
+    static {
+        // headers and body go out in separate writes; without TCP_NODELAY every response pays the delayed-ACK timer
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final byte[] TOKEN_RESPONSE =
+            "{\"access_token\":\"benchmark\",\"token_type\":\"Bearer\",\"expires_in\":86400}".getBytes(StandardCharsets.UTF_8);
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+    private final long bytesPerSecond;
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public BeerStubServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * @param bytesPerSecond throttles response bodies to roughly this rate per connection; 0 for unthrottled
+     */
+    public BeerStubServer(long bytesPerSecond) throws IOException {
+        this.bytesPerSecond = bytesPerSecond;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/oauth2/token", exchange -> respond(exchange, 200, TOKEN_RESPONSE));
+        server.createContext(BEER_PATH, this::handleBeers);
+        server.start();
+    }
+
+    public String rootUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public String tokenUri() {
+        return rootUrl() + "/oauth2/token";
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleBeers(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            bytesReceived.addAndGet(body.transferTo(OutputStream.nullOutputStream()));
+        }
+        requests.incrementAndGet();
+
+        String method = exchange.getRequestMethod();
+        boolean collection = exchange.getRequestURI().getPath().equals(BEER_PATH);
+
+        if (method.equals("GET")) {
+            boolean smile = accepts(exchange, "Accept", SMILE);
+            boolean gzip = accepts(exchange, "Accept-Encoding", "gzip");
+            int pageSize = collection ? pageSize(exchange) : 0;
+            String key = (smile ? "smile" : "json") + (gzip ? "+gzip" : "") + ":" + pageSize;
+            byte[] body = bodies.computeIfAbsent(key, k -> {
+                Object value = collection ? beerPage(pageSize) : beer(0);
+                byte[] serialized = serialize(smile ? smileMapper : objectMapper, value);
+                return gzip ? gzip(serialized) : serialized;
+            });
+
+            exchange.getResponseHeaders().add("Content-Type", smile ? SMILE : "application/json");
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            respond(exchange, 200, body);
+        } else if (collection && method.equals("POST")) {
+            exchange.getResponseHeaders().add("Location", BEER_PATH + "/" + UUID.randomUUID());
+            respond(exchange, 201, null);
+        } else {
+            respond(exchange, 204, null);
+        }
+    }
+
+    static BeerDTOPageImpl beerPage(int pageSize) {
+        List<BeerDTO> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(beer(i));
+        }
+        return new BeerDTOPageImpl(content, 0, pageSize, pageSize * 10L);
+    }
+
+    static byte[] serialize(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static BeerDTO beer(int i) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(i % 7)
+                .beerName("Benchmark Beer " + i)
+                .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                .upc(String.valueOf(100000 + i))
+                .quantityOnHand(i)
+                .price(new BigDecimal("12.99"))
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static int pageSize(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("pageSize=")) {
+                    return Integer.parseInt(param.substring("pageSize=".length()));
+                }
+            }
+        }
+        return 25;
+    }
+
+    private static boolean accepts(HttpExchange exchange, String header, String value) {
+        String accepted = exchange.getRequestHeaders().getFirst(header);
+        return accepted != null && accepted.startsWith(value);
+    }
+
+    private static byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] payload) throws IOException {
+        if (payload == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+            }
+            exchange.sendResponseHeaders(status, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, payload);
+            }
+            bytesSent.addAndGet(payload.length);
+        }
+        exchange.close();
+    }
+
+    private void write(OutputStream out, byte[] payload) throws IOException {
+        if (bytesPerSecond <= 0) {
+            out.write(payload);
+            return;
+        }
+        int chunk = 8 * 1024;
+        for (int offset = 0; offset < payload.length; offset += chunk) {
+            int length = Math.min(chunk, payload.length - offset);
+            out.write(payload, offset, length);
+            out.flush();
+            LockSupport.parkNanos(length * 1_000_000_000L / bytesPerSecond);
+        }
+    }
+}
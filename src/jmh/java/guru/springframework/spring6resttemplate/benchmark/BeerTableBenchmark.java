@@ -0,0 +1,90 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.model.BeerTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Footprint and scan speed of a {@link BeerTable} against a plain {@code List<BeerDTO>} holding the same beers.
+ * Retained bytes per beer, as measured by JOL, are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BeerTableBenchmark {
+
+    @Param({"100000", "1000000"})
+    int beers;
+
+    List<BeerDTO> list;
+    BeerTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = new ArrayList<>(beers);
+        table = new BeerTable(beers);
+        for (int i = 0; i < beers; i++) {
+            BeerDTO beer = BeerStubServer.beer(i);
+            list.add(beer);
+            table.put(beer);
+        }
+
+        if (beers <= 100_000) {
+            System.out.printf("%nList<BeerDTO>: %d bytes per beer%n", GraphLayout.parseInstance(list).totalSize() / beers);
+            System.out.printf("BeerTable:     %d bytes per beer%n", GraphLayout.parseInstance(table).totalSize() / beers);
+        }
+    }
+
+    @Benchmark
+    public long listSumQuantityOfIpas() {
+        long total = 0;
+        for (BeerDTO beer : list) {
+            if (beer.getBeerStyle() == BeerStyle.IPA) {
+                total += beer.getQuantityOnHand();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long tableSumQuantityOfIpas() {
+        long total = 0;
+        for (int row = 0; row < table.size(); row++) {
+            if (table.beerStyle(row) == BeerStyle.IPA) {
+                total += table.quantityOnHandAsInt(row);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long tableViewsSumQuantityOfIpas() {
+        long[] total = new long[1];
+        table.forEach(beer -> {
+            if (beer.getBeerStyle() == BeerStyle.IPA) {
+                total[0] += beer.getQuantityOnHand();
+            }
+        });
+        return total[0];
+    }
+}
@@ -0,0 +1,75 @@
+package guru.springframework.spring6resttemplate.benchmark;
+
+import guru.springframework.spring6resttemplate.client.BeerClientImpl;
+import guru.springframework.spring6resttemplate.client.BeerUris;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the request URI of {@code listBeers} and {@code getBeerById}: template expansion through the
+ * {@code RestTemplate}'s {@link DefaultUriBuilderFactory} against {@link BeerUris}. Run with the default
+ * {@code -prof gc} to see the allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerUriBenchmark {
+
+    static final String ROOT_URL = "http://localhost:8080";
+
+    DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory(ROOT_URL);
+    BeerUris beerUris = new BeerUris(uriBuilderFactory);
+
+    Optional<String> beerName = Optional.of("Mango Bobs");
+    Optional<BeerStyle> beerStyle = Optional.of(BeerStyle.IPA);
+    Optional<Boolean> showInventory = Optional.of(true);
+    Optional<Integer> page = Optional.of(3);
+    Optional<Integer> size = Optional.of(25);
+    UUID beerId = UUID.randomUUID();
+
+    @SuppressWarnings("deprecation")
+    @Benchmark
+    public URI listBeersTemplate() {
+        String uri = UriComponentsBuilder.fromHttpUrl(BeerClientImpl.BEER_PATH)
+                .queryParamIfPresent("beerName", beerName)
+                .queryParamIfPresent("beerStyle", beerStyle)
+                .queryParamIfPresent("showInventory", showInventory)
+                .queryParamIfPresent("pageNumber", page)
+                .queryParamIfPresent("pageSize", size)
+                .toUriString();
+        return uriBuilderFactory.expand(uri);
+    }
+
+    @Benchmark
+    public URI listBeersBeerUris() {
+        return URI.create(beerUris.beers(beerName, beerStyle, showInventory, page, size));
+    }
+
+    @Benchmark
+    public URI getBeerByIdTemplate() {
+        return uriBuilderFactory.expand(BeerClientImpl.BEER_BY_ID_PATH, beerId);
+    }
+
+    @Benchmark
+    public URI getBeerByIdBeerUris() {
+        return beerUris.beerById(beerId);
+    }
+}
@@ -0,0 +1,26 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncBeerClient {
+
+    CompletableFuture<Optional<BeerDTO>> createBeer(BeerDTO beerDTO);
+
+    CompletableFuture<Optional<BeerDTO>> getBeerById(UUID beerId);
+
+    CompletableFuture<Page<BeerDTO>> listBeers(Optional<String> optBeerName,
+                                               Optional<BeerStyle> optBeerStyle,
+                                               Optional<Boolean> optShowInventory,
+                                               Optional<Integer> optPage,
+                                               Optional<Integer> optSize);
+
+    CompletableFuture<Optional<BeerDTO>> updateBeer(BeerDTO beerDTO);
+
+    CompletableFuture<Void> deleteBeer(UUID id);
+}
@@ -0,0 +1,101 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.config.ClientRegistrationContext;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+@Service
+public class AsyncBeerClientImpl implements AsyncBeerClient, DisposableBean {
+
+    private final BeerClient beerClient;
+    private final Executor executor;
+    private final Semaphore inFlight;
+
+    @Autowired
+    public AsyncBeerClientImpl(BeerClient beerClient,
+                               @Value("${rest.template.async.maxInFlight:256}") int maxInFlight) {
+        this(beerClient, createExecutor(maxInFlight), maxInFlight);
+    }
+
+    AsyncBeerClientImpl(BeerClient beerClient, Executor executor, int maxInFlight) {
+        this.beerClient = beerClient;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public CompletableFuture<Optional<BeerDTO>> createBeer(BeerDTO beerDTO) {
+        return submit(() -> beerClient.createBeer(beerDTO));
+    }
+
+    @Override
+    public CompletableFuture<Optional<BeerDTO>> getBeerById(UUID beerId) {
+        return submit(() -> beerClient.getBeerById(beerId));
+    }
+
+    @Override
+    public CompletableFuture<Page<BeerDTO>> listBeers(Optional<String> optBeerName,
+                                                      Optional<BeerStyle> optBeerStyle,
+                                                      Optional<Boolean> optShowInventory,
+                                                      Optional<Integer> optPage,
+                                                      Optional<Integer> optSize) {
+        return submit(() -> beerClient.listBeers(optBeerName, optBeerStyle, optShowInventory, optPage, optSize));
+    }
+
+    @Override
+    public CompletableFuture<Optional<BeerDTO>> updateBeer(BeerDTO beerDTO) {
+        return submit(() -> beerClient.updateBeer(beerDTO));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteBeer(UUID id) {
+        return submit(() -> {
+            beerClient.deleteBeer(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            inFlight.acquireUninterruptibly();
+            try {
+                return call.get();
+            } finally {
+                inFlight.release();
+            }
+        }, ClientRegistrationContext.propagating(executor));
+    }
+
+    private static Executor createExecutor(int maxInFlight) {
+        try {
+            return new VirtualThreadTaskExecutor("async-beer-client-");
+        } catch (UnsupportedOperationException ex) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("async-beer-client-");
+            threadFactory.setDaemon(true);
+            return Executors.newFixedThreadPool(maxInFlight, threadFactory);
+        }
+    }
+}
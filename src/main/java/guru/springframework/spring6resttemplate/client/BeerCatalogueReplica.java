@@ -0,0 +1,291 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process copy of the whole beer catalogue, indexed by id, by style and by name prefix. It is loaded once on
+ * start and then re-synced every {@code syncInterval}.
+ * <p>
+ * The API has no "changed since" filter, so each sync pages through the full listing. Only beers whose
+ * {@code version} or {@code updateDate} changed are re-indexed. A delete or insert during a pass shifts rows across
+ * page boundaries, so beers missing from a pass are looked up by id and only dropped when that lookup misses too.
+ * <p>
+ * Reads go to the API instead while the last successful sync is older than {@code maxStaleness}. The replica
+ * matches {@code beerName} as a case-insensitive prefix, not as a substring.
+ * <p>
+ * A page is built by walking the index up to its last row, and the total comes from a per-index count, so an
+ * unfiltered page costs the same however large the catalogue is. A name prefix still has to count its matches.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "rest.template.replica", name = "enabled", havingValue = "true")
+public class BeerCatalogueReplica implements SmartLifecycle {
+
+    private final BeerClientImpl delegate;
+    private final Duration syncInterval;
+    private final Duration maxStaleness;
+    private final int pageSize;
+    private final Clock clock;
+
+    private final Map<UUID, BeerDTO> byId = new ConcurrentHashMap<>();
+    private final Map<BeerStyle, NameIndex> byStyle = new EnumMap<>(BeerStyle.class);
+    private final NameIndex byName = new NameIndex();
+
+    private final Timer syncTimer;
+    private final Counter upserts;
+    private final Counter deletions;
+
+    private final Instant createdAt;
+    private volatile Instant lastSyncedAt;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public BeerCatalogueReplica(BeerClientImpl delegate,
+                                @Value("${rest.template.replica.syncInterval:30s}") Duration syncInterval,
+                                @Value("${rest.template.replica.maxStaleness:2m}") Duration maxStaleness,
+                                @Value("${rest.template.replica.pageSize:1000}") int pageSize,
+                                MeterRegistry meterRegistry) {
+        this(delegate, syncInterval, maxStaleness, pageSize, meterRegistry, Clock.systemUTC());
+    }
+
+    BeerCatalogueReplica(BeerClientImpl delegate, Duration syncInterval, Duration maxStaleness, int pageSize,
+                         MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.syncInterval = syncInterval;
+        this.maxStaleness = maxStaleness;
+        this.pageSize = pageSize;
+        this.clock = clock;
+        this.createdAt = clock.instant();
+        for (BeerStyle style : BeerStyle.values()) {
+            byStyle.put(style, new NameIndex());
+        }
+
+        this.syncTimer = meterRegistry.timer("beer.client.replica.sync");
+        this.upserts = meterRegistry.counter("beer.client.replica.changes", "type", "upsert");
+        this.deletions = meterRegistry.counter("beer.client.replica.changes", "type", "delete");
+        Gauge.builder("beer.client.replica.size", byId, Map::size).register(meterRegistry);
+        Gauge.builder("beer.client.replica.lag", this, replica -> replica.lag().toMillis() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public Optional<BeerDTO> getBeerById(UUID beerId) {
+        if (!isFresh()) {
+            return delegate.getBeerById(beerId);
+        }
+        return Optional.ofNullable(byId.get(beerId)).map(beer -> beer.toBuilder().build());
+    }
+
+    /**
+     * @param optPage one-based, like the API
+     */
+    public Page<BeerDTO> listBeers(Optional<String> optBeerName,
+                                   Optional<BeerStyle> optBeerStyle,
+                                   Optional<Integer> optPage,
+                                   Optional<Integer> optSize) {
+        int page = optPage.orElse(1);
+        int size = optSize.orElse(25);
+        if (!isFresh()) {
+            return delegate.listBeers(optBeerName, optBeerStyle, Optional.of(true), Optional.of(page), Optional.of(size));
+        }
+
+        NameIndex index = optBeerStyle.map(byStyle::get).orElse(byName);
+        NavigableMap<String, UUID> entries = index.entries;
+        boolean countMatches = optBeerName.isPresent();
+        if (countMatches) {
+            String prefix = optBeerName.get().toLowerCase(Locale.ROOT);
+            entries = entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        long offset = (long) (page - 1) * size;
+        List<BeerDTO> content = new ArrayList<>(size);
+        long position = 0;
+        Iterator<UUID> ids = entries.values().iterator();
+        while (ids.hasNext() && (countMatches || content.size() < size)) {
+            UUID beerId = ids.next();
+            if (position++ < offset || content.size() >= size) {
+                continue;
+            }
+            BeerDTO beer = byId.get(beerId);
+            if (beer != null) {
+                content.add(beer.toBuilder().build());
+            }
+        }
+        long total = countMatches ? position : index.size.get();
+        return new BeerDTOPageImpl(content, PageRequest.of(page - 1, size), total);
+    }
+
+    public boolean isFresh() {
+        return lastSyncedAt != null && lag().compareTo(maxStaleness) <= 0;
+    }
+
+    /**
+     * @return the time since the last successful sync, or since the replica was created while it has none
+     */
+    public Duration lag() {
+        Instant synced = lastSyncedAt;
+        return Duration.between(synced != null ? synced : createdAt, clock.instant());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    void sync() {
+        Instant startedAt = clock.instant();
+        Set<UUID> seen = new HashSet<>(byId.size());
+
+        syncTimer.record(() -> {
+            for (int page = 1; ; page++) {
+                BeerPageSummary summary = delegate.listBeers(Optional.empty(), Optional.empty(), Optional.of(true),
+                        Optional.of(page), Optional.of(pageSize), beer -> {
+                            seen.add(beer.getId());
+                            apply(beer);
+                        });
+                if (summary.getNumberOfElements() < pageSize || (long) page * pageSize >= summary.getTotalElements()) {
+                    break;
+                }
+            }
+        });
+
+        List<UUID> unseen = byId.keySet().stream().filter(beerId -> !seen.contains(beerId)).toList();
+        if (!unseen.isEmpty()) {
+            Map<UUID, BeerDTO> found = delegate.getBeersByIds(unseen);
+            for (UUID beerId : unseen) {
+                BeerDTO beer = found.get(beerId);
+                if (beer != null) {
+                    apply(beer);
+                } else {
+                    remove(byId.remove(beerId));
+                }
+            }
+        }
+        lastSyncedAt = startedAt;
+    }
+
+    private void apply(BeerDTO beer) {
+        BeerDTO previous = byId.get(beer.getId());
+        if (previous != null
+                && Objects.equals(previous.getVersion(), beer.getVersion())
+                && Objects.equals(previous.getUpdateDate(), beer.getUpdateDate())) {
+            return;
+        }
+
+        if (previous != null) {
+            unindex(previous);
+        }
+        byId.put(beer.getId(), beer);
+        byName.add(nameKey(beer), beer.getId());
+        if (beer.getBeerStyle() != null) {
+            byStyle.get(beer.getBeerStyle()).add(nameKey(beer), beer.getId());
+        }
+        upserts.increment();
+    }
+
+    private void remove(BeerDTO beer) {
+        if (beer != null) {
+            unindex(beer);
+            deletions.increment();
+        }
+    }
+
+    private void unindex(BeerDTO beer) {
+        byName.remove(nameKey(beer));
+        if (beer.getBeerStyle() != null) {
+            byStyle.get(beer.getBeerStyle()).remove(nameKey(beer));
+        }
+    }
+
+    private static String nameKey(BeerDTO beer) {
+        String name = beer.getBeerName() == null ? "" : beer.getBeerName().toLowerCase(Locale.ROOT);
+        return name + '\0' + beer.getId();
+    }
+
+    @Override
+    public synchronized void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-replica-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException ex) {
+            log.warn("Beer catalogue sync failed, replica is {} behind", lag(), ex);
+        }
+    }
+
+    /**
+     * Beer ids ordered by name key, with a running count; {@link ConcurrentSkipListMap#size()} walks the whole map.
+     * Only the sync thread writes.
+     */
+    private static class NameIndex {
+        private final NavigableMap<String, UUID> entries = new ConcurrentSkipListMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(String key, UUID beerId) {
+            if (entries.put(key, beerId) == null) {
+                size.incrementAndGet();
+            }
+        }
+
+        void remove(String key) {
+            if (entries.remove(key) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerChangeBatch;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A running subscription to the beer change feed. One thread long-polls the feed with the cursor of the last batch
+ * and another hands the changed beers to the listener in order. The queue between them holds {@code queueCapacity}
+ * beers; when the listener falls behind, polling pauses until it catches up rather than dropping changes.
+ * <p>
+ * A failed poll is repeated from the same cursor after an exponential backoff of up to {@code maxBackoff}, so a
+ * disconnect loses nothing. {@link #cursor()} only moves past a batch once the listener has seen all of it; pass it
+ * to {@link BeerClient#subscribeChanges(Optional, Consumer)} to resume after a restart.
+ */
+@Slf4j
+public class BeerChangeSubscription implements AutoCloseable {
+
+    private final Function<Optional<String>, BeerChangeBatch> poller;
+    private final Consumer<BeerDTO> listener;
+    private final BlockingQueue<Change> queue;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Thread pollThread;
+    private final Thread dispatchThread;
+
+    private volatile String cursor;
+    private volatile boolean closed;
+
+    BeerChangeSubscription(Function<Optional<String>, BeerChangeBatch> poller, Optional<String> optCursor,
+                           Consumer<BeerDTO> listener, int queueCapacity, Duration initialBackoff, Duration maxBackoff) {
+        this.poller = poller;
+        this.listener = listener;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.cursor = optCursor.orElse(null);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-changes-");
+        threadFactory.setDaemon(true);
+        this.pollThread = threadFactory.newThread(() -> poll(optCursor.orElse(null)));
+        this.dispatchThread = threadFactory.newThread(this::dispatch);
+    }
+
+    BeerChangeSubscription start() {
+        dispatchThread.start();
+        pollThread.start();
+        return this;
+    }
+
+    /**
+     * @return the cursor after the last batch the listener has fully seen, or empty before the first one
+     */
+    public Optional<String> cursor() {
+        return Optional.ofNullable(cursor);
+    }
+
+    /**
+     * Stops polling and delivery. A poll in progress is abandoned once the server answers it.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pollThread.interrupt();
+        dispatchThread.interrupt();
+    }
+
+    private void poll(String from) {
+        String next = from;
+        int failures = 0;
+
+        while (!closed) {
+            long start = System.nanoTime();
+            BeerChangeBatch batch;
+            try {
+                batch = poller.apply(Optional.ofNullable(next));
+            } catch (RuntimeException ex) {
+                if (closed) {
+                    return;
+                }
+                failures++;
+                long backoff = backoff(failures);
+                log.warn("Polling beer changes failed {} time(s), retrying in {} ms", failures,
+                        TimeUnit.NANOSECONDS.toMillis(backoff), ex);
+                if (!sleep(backoff)) {
+                    return;
+                }
+                continue;
+            }
+            failures = 0;
+
+            List<BeerDTO> beers = batch == null || batch.getBeers() == null ? List.of() : batch.getBeers();
+            String batchCursor = batch == null || batch.getCursor() == null ? next : batch.getCursor();
+            try {
+                for (int i = 0; i < beers.size(); i++) {
+                    queue.put(new Change(beers.get(i), i == beers.size() - 1 ? batchCursor : null));
+                }
+                if (beers.isEmpty() && !Objects.equals(batchCursor, next)) {
+                    queue.put(new Change(null, batchCursor));
+                }
+            } catch (InterruptedException ex) {
+                return;
+            }
+            next = batchCursor;
+
+            // a server that answers empty polls at once instead of holding them is not polled in a tight loop
+            if (beers.isEmpty() && System.nanoTime() - start < initialBackoffNanos && !sleep(initialBackoffNanos)) {
+                return;
+            }
+        }
+    }
+
+    private void dispatch() {
+        while (!closed) {
+            Change change;
+            try {
+                change = queue.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+
+            if (change.beer() != null) {
+                try {
+                    listener.accept(change.beer());
+                } catch (RuntimeException ex) {
+                    log.warn("Beer change listener failed for beer {}", change.beer().getId(), ex);
+                }
+            }
+            if (change.cursor() != null) {
+                cursor = change.cursor();
+            }
+        }
+    }
+
+    private long backoff(int failures) {
+        long backoff = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(failures - 1, 20));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return !closed;
+        } catch (InterruptedException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * @param cursor set on the last change of a batch, where the feed can be resumed from
+     */
+    private record Change(BeerDTO beer, String cursor) {
+    }
+}
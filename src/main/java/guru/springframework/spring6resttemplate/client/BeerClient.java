@@ -1,11 +1,17 @@
 package guru.springframework.spring6resttemplate.client;
 
 import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
 import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.model.BulkWriteReport;
 import org.springframework.data.domain.Page;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BeerClient {
 
@@ -13,13 +19,39 @@ public interface BeerClient {
 
     Optional<BeerDTO> getBeerById(UUID beerId);
 
+    Map<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds);
+
     Page<BeerDTO> listBeers(Optional<String> optBeerName,
                             Optional<BeerStyle> optBeerStyle,
                             Optional<Boolean> optShowInventory,
                             Optional<Integer> optPage,
                             Optional<Integer> optSize);
 
+    BeerPageSummary listBeers(Optional<String> optBeerName,
+                              Optional<BeerStyle> optBeerStyle,
+                              Optional<Boolean> optShowInventory,
+                              Optional<Integer> optPage,
+                              Optional<Integer> optSize,
+                              Consumer<BeerDTO> beerConsumer);
+
+    Stream<BeerDTO> streamBeers(Optional<String> optBeerName,
+                                Optional<BeerStyle> optBeerStyle,
+                                Optional<Boolean> optShowInventory,
+                                Optional<Integer> optSize);
+
     Optional<BeerDTO> updateBeer(BeerDTO beerDTO);
 
+    Optional<BeerDTO> patchBeer(BeerDTO baseline, BeerDTO updated);
+
     void deleteBeer(UUID id);
+
+    BulkWriteReport createBeers(Iterable<BeerDTO> beerDTOs);
+
+    BulkWriteReport updateBeers(Iterable<BeerDTO> beerDTOs);
+
+    BulkWriteReport deleteBeers(Iterable<UUID> ids);
+
+    BeerChangeSubscription subscribeChanges(Consumer<BeerDTO> listener);
+
+    BeerChangeSubscription subscribeChanges(Optional<String> optCursor, Consumer<BeerDTO> listener);
 }
@@ -1,54 +1,249 @@
 package guru.springframework.spring6resttemplate.client;
 
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import guru.springframework.spring6resttemplate.config.ClientRegistrationContext;
+import guru.springframework.spring6resttemplate.model.BeerChangeBatch;
 import guru.springframework.spring6resttemplate.model.BeerDTO;
 import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
 import guru.springframework.spring6resttemplate.model.BeerStyle;
-import lombok.RequiredArgsConstructor;
+import guru.springframework.spring6resttemplate.model.BulkWriteReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
-@RequiredArgsConstructor
-public class BeerClientImpl implements BeerClient {
+public class BeerClientImpl implements BeerClient, DisposableBean {
 
-    private final RestTemplateBuilder restTemplateBuilder;
+    private final RestTemplate restTemplate;
+    private final ExecutorService fetchExecutor;
+    private final Executor contextualFetchExecutor;
+    private final int prefetchPages;
+    private final boolean readAfterWrite;
+    private final BeerClientMetrics metrics;
+    private final ExecutorService bulkExecutor;
+    private final BulkWritePipeline bulkWritePipeline;
+    private final ObjectReader beerReader;
+    private final ObjectReader smileBeerReader;
+    private final BeerUris beerUris;
+    private final Duration changesWait;
+    private final int changesQueueCapacity;
+    private final Duration changesInitialBackoff;
+    private final Duration changesMaxBackoff;
+    private final Map<UUID, CompletableFuture<Optional<BeerDTO>>> inFlightLookups = new ConcurrentHashMap<>();
 
     public static final String BEER_PATH = "/api/v1/beer";
     public static final String BEER_BY_ID_PATH = "/api/v1/beer/{beerId}";
+    public static final String BEER_CHANGES_PATH = "/api/v1/beer/changes";
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Autowired
+    public BeerClientImpl(RestTemplateBuilder restTemplateBuilder,
+                          @Value("${rest.template.lookupConcurrency:16}") int lookupConcurrency,
+                          @Value("${rest.template.prefetchPages:2}") int prefetchPages,
+                          @Value("${rest.template.readAfterWrite:true}") boolean readAfterWrite,
+                          @Value("${rest.template.bulk.batchSize:100}") int bulkBatchSize,
+                          @Value("${rest.template.bulk.concurrency:8}") int bulkConcurrency,
+                          @Value("${rest.template.changes.wait:5s}") Duration changesWait,
+                          @Value("${rest.template.changes.queueCapacity:1000}") int changesQueueCapacity,
+                          @Value("${rest.template.changes.initialBackoff:1s}") Duration changesInitialBackoff,
+                          @Value("${rest.template.changes.maxBackoff:30s}") Duration changesMaxBackoff,
+                          MeterRegistry meterRegistry) {
+        this.metrics = new BeerClientMetrics(meterRegistry);
+        // first in the chain, so the status it sees is the final one after retries; added to this template only
+        this.restTemplate = restTemplateBuilder
+                .additionalCustomizers(template -> {
+                    List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(template.getInterceptors());
+                    interceptors.add(0, metrics);
+                    template.setInterceptors(interceptors);
+                })
+                .build();
+        this.beerUris = new BeerUris(restTemplate.getUriTemplateHandler());
+        this.prefetchPages = prefetchPages;
+        this.readAfterWrite = readAfterWrite;
+        this.changesWait = changesWait;
+        this.changesQueueCapacity = changesQueueCapacity;
+        this.changesInitialBackoff = changesInitialBackoff;
+        this.changesMaxBackoff = changesMaxBackoff;
+        this.beerReader = restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseGet(() -> Jackson2ObjectMapperBuilder.json().build())
+                .readerFor(BeerDTO.class);
+        this.smileBeerReader = restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2SmileHttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2SmileHttpMessageConverter) converter).getObjectMapper().readerFor(BeerDTO.class))
+                .findFirst()
+                .orElse(null);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-client-");
+        threadFactory.setDaemon(true);
+        this.fetchExecutor = Executors.newFixedThreadPool(lookupConcurrency, threadFactory);
+        this.contextualFetchExecutor = ClientRegistrationContext.propagating(fetchExecutor);
+
+        CustomizableThreadFactory bulkThreadFactory = new CustomizableThreadFactory("beer-bulk-");
+        bulkThreadFactory.setDaemon(true);
+        this.bulkExecutor = Executors.newFixedThreadPool(bulkConcurrency, bulkThreadFactory);
+        this.bulkWritePipeline = new BulkWritePipeline(ClientRegistrationContext.propagating(bulkExecutor),
+                bulkBatchSize, bulkConcurrency);
+    }
 
     @Override
     public void deleteBeer(UUID id) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        restTemplate.delete(BEER_BY_ID_PATH, id);
+        metrics.record("deleteBeer", () -> {
+            restTemplate.delete(beerUris.beerById(id));
+            return null;
+        });
     }
 
+    /**
+     * Without {@code readAfterWrite} and without a response body, the beer sent is returned with the version taken
+     * from the {@code ETag}. The version is {@code null} when the server sends no {@code ETag}, and the
+     * server-assigned dates are never known, so callers must not treat such a result as current.
+     */
     @Override
     public Optional<BeerDTO> updateBeer(BeerDTO beerDTO) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        restTemplate.put(BEER_BY_ID_PATH, beerDTO, beerDTO.getId());
-        return getBeerById(beerDTO.getId());
+        return metrics.record("updateBeer", () -> {
+            ResponseEntity<BeerDTO> response = restTemplate.exchange(beerUris.beerById(beerDTO.getId()), HttpMethod.PUT,
+                    new HttpEntity<>(beerDTO), BeerDTO.class);
+
+            if (response.getBody() != null) {
+                return Optional.of(response.getBody());
+            }
+            if (readAfterWrite) {
+                return getBeerById(beerDTO.getId());
+            }
+            return Optional.of(beerDTO.toBuilder()
+                    .version(versionFrom(response.getHeaders()))
+                    .updateDate(null)
+                    .build());
+        });
     }
 
+    /**
+     * Sends a JSON Merge Patch with only the fields that differ from {@code baseline}, guarded by
+     * {@code If-Match} on the baseline's version, so a concurrent change on the server fails with 412 instead of
+     * being overwritten. When nothing changed no request is made, the baseline is returned and the call is timed
+     * with status {@code NONE}.
+     */
+    @Override
+    public Optional<BeerDTO> patchBeer(BeerDTO baseline, BeerDTO updated) {
+        return metrics.record("patchBeer", () -> {
+            ObjectNode patch = BeerMergePatch.diff(baseline, updated);
+            if (patch.isEmpty()) {
+                return Optional.of(baseline);
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(BeerMergePatch.MEDIA_TYPE);
+            if (baseline.getVersion() != null) {
+                headers.setIfMatch("\"" + baseline.getVersion() + "\"");
+            }
+            ResponseEntity<BeerDTO> response = restTemplate.exchange(beerUris.beerById(baseline.getId()), HttpMethod.PATCH,
+                    new HttpEntity<>(patch, headers), BeerDTO.class);
+
+            if (response.getBody() != null) {
+                return Optional.of(response.getBody());
+            }
+            if (readAfterWrite) {
+                return getBeerById(baseline.getId());
+            }
+            return Optional.of(updated.toBuilder()
+                    .id(baseline.getId())
+                    .version(versionFrom(response.getHeaders()))
+                    .updateDate(null)
+                    .build());
+        });
+    }
+
+    /**
+     * Like {@link #updateBeer}, a beer returned without {@code readAfterWrite} has a {@code null} version unless the
+     * server sends an {@code ETag}, and no dates.
+     */
     @Override
     public Optional<BeerDTO> createBeer(BeerDTO newDTO) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
+        return metrics.record("createBeer", () -> {
+            ResponseEntity<BeerDTO> response = restTemplate.postForEntity(beerUris.beers(), newDTO, BeerDTO.class);
+
+            if (response.getBody() != null) {
+                return Optional.of(response.getBody());
+            }
 
-        Optional<URI> optURI = Optional.ofNullable(restTemplate.postForLocation(BEER_PATH, newDTO));
-        return optURI.flatMap(uri -> Optional.ofNullable(restTemplate.getForObject(uri.getPath(), BeerDTO.class)));
+            Optional<URI> optURI = Optional.ofNullable(response.getHeaders().getLocation());
+            Optional<UUID> optId = optURI.flatMap(BeerClientImpl::idFromLocation);
+            if (readAfterWrite || optId.isEmpty()) {
+                return optURI.flatMap(uri -> Optional.ofNullable(restTemplate.getForObject(uri.getPath(), BeerDTO.class)));
+            }
+            return optId.map(id -> newDTO.toBuilder()
+                    .id(id)
+                    .version(versionFrom(response.getHeaders()))
+                    .createdDate(null)
+                    .updateDate(null)
+                    .build());
+        });
     }
 
     @Override
     public Optional<BeerDTO> getBeerById(UUID beerId) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        return Optional.ofNullable(restTemplate.getForObject(BEER_BY_ID_PATH, BeerDTO.class, beerId));
+        return metrics.record("getBeerById",
+                () -> Optional.ofNullable(restTemplate.getForObject(beerUris.beerById(beerId), BeerDTO.class)));
+    }
+
+    public ResponseEntity<BeerDTO> getBeerEntity(UUID beerId, HttpHeaders requestHeaders) {
+        return metrics.record("getBeerById", () -> restTemplate.exchange(beerUris.beerById(beerId), HttpMethod.GET,
+                new HttpEntity<>(requestHeaders), BeerDTO.class));
+    }
+
+    @Override
+    public Map<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds) {
+        return metrics.record("getBeersByIds", () -> {
+            Map<UUID, CompletableFuture<Optional<BeerDTO>>> lookups = new LinkedHashMap<>();
+            beerIds.forEach(beerId -> lookups.computeIfAbsent(beerId, this::lookupBeer));
+
+            Map<UUID, BeerDTO> beers = new LinkedHashMap<>();
+            lookups.forEach((beerId, lookup) -> join(lookup).ifPresent(beerDTO -> beers.put(beerId, beerDTO)));
+            return beers;
+        });
     }
 
     @Override
@@ -57,16 +252,164 @@ public class BeerClientImpl implements BeerClient {
                                    Optional<Boolean> optShowInventory,
                                    Optional<Integer> optPage,
                                    Optional<Integer> optSize) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
+        URI uri = URI.create(beersUri(optBeerName, optBeerStyle, optShowInventory, optPage, optSize));
+
+        return metrics.record("listBeers", () -> {
+            ResponseEntity<BeerDTOPageImpl> forEntity = restTemplate.execute(uri, HttpMethod.GET,
+                    restTemplate.acceptHeaderRequestCallback(BeerDTOPageImpl.class),
+                    metrics.timedExtractor("listBeers", restTemplate.responseEntityExtractor(BeerDTOPageImpl.class)));
+            return forEntity.getBody();
+        });
+    }
+
+    public ResponseEntity<BeerDTOPageImpl> listBeersEntity(String beersUri, HttpHeaders requestHeaders) {
+        return metrics.record("listBeers", () -> restTemplate.exchange(URI.create(beersUri), HttpMethod.GET,
+                new HttpEntity<>(requestHeaders), BeerDTOPageImpl.class));
+    }
+
+    @Override
+    public BeerPageSummary listBeers(Optional<String> optBeerName,
+                                     Optional<BeerStyle> optBeerStyle,
+                                     Optional<Boolean> optShowInventory,
+                                     Optional<Integer> optPage,
+                                     Optional<Integer> optSize,
+                                     Consumer<BeerDTO> beerConsumer) {
+        URI uri = URI.create(beersUri(optBeerName, optBeerStyle, optShowInventory, optPage, optSize));
+
+        return metrics.record("listBeers", () -> restTemplate.execute(uri, HttpMethod.GET,
+                restTemplate.acceptHeaderRequestCallback(BeerDTOPageImpl.class),
+                metrics.timedExtractor("listBeers", new BeerPageResponseExtractor(this::beerReaderFor, beerConsumer))));
+    }
+
+    @Override
+    public Stream<BeerDTO> streamBeers(Optional<String> optBeerName,
+                                       Optional<BeerStyle> optBeerStyle,
+                                       Optional<Boolean> optShowInventory,
+                                       Optional<Integer> optSize) {
+        PrefetchingPageIterator iterator = new PrefetchingPageIterator(
+                pageNumber -> listBeers(optBeerName, optBeerStyle, optShowInventory, Optional.of(pageNumber), optSize),
+                contextualFetchExecutor,
+                prefetchPages);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
 
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(BEER_PATH)
-                .queryParamIfPresent("beerName", optBeerName)
-                .queryParamIfPresent("beerStyle", optBeerStyle)
-                .queryParamIfPresent("showInventory", optShowInventory)
-                .queryParamIfPresent("pageNumber", optPage)
-                .queryParamIfPresent("pageSize", optSize);
+    @Override
+    public BulkWriteReport createBeers(Iterable<BeerDTO> beerDTOs) {
+        return metrics.record("createBeers", () -> bulkWritePipeline.run(beerDTOs, BeerDTO::getId, this::createBeer));
+    }
+
+    @Override
+    public BulkWriteReport updateBeers(Iterable<BeerDTO> beerDTOs) {
+        return metrics.record("updateBeers", () -> bulkWritePipeline.run(beerDTOs, BeerDTO::getId, this::updateBeer));
+    }
+
+    @Override
+    public BulkWriteReport deleteBeers(Iterable<UUID> ids) {
+        return metrics.record("deleteBeers", () -> bulkWritePipeline.run(ids, id -> id, id -> {
+            deleteBeer(id);
+            return Optional.empty();
+        }));
+    }
+
+    @Override
+    public BeerChangeSubscription subscribeChanges(Consumer<BeerDTO> listener) {
+        return subscribeChanges(Optional.empty(), listener);
+    }
+
+    /**
+     * Long-polls {@code /api/v1/beer/changes} for beers created or updated after {@code optCursor}, or from now on
+     * without one. The server answers with the changed beers and the cursor to continue from, holding the request
+     * for up to {@code rest.template.changes.wait} while there are none; keep that below the read timeout.
+     */
+    @Override
+    public BeerChangeSubscription subscribeChanges(Optional<String> optCursor, Consumer<BeerDTO> listener) {
+        return new BeerChangeSubscription(this::pollChanges, optCursor, listener, changesQueueCapacity,
+                changesInitialBackoff, changesMaxBackoff).start();
+    }
+
+    @Override
+    public void destroy() {
+        fetchExecutor.shutdown();
+        bulkExecutor.shutdown();
+    }
+
+    String beersUri(Optional<String> optBeerName,
+                    Optional<BeerStyle> optBeerStyle,
+                    Optional<Boolean> optShowInventory,
+                    Optional<Integer> optPage,
+                    Optional<Integer> optSize) {
+        return beerUris.beers(optBeerName, optBeerStyle, optShowInventory, optPage, optSize);
+    }
+
+    private BeerChangeBatch pollChanges(Optional<String> optCursor) {
+        return metrics.record("pollChanges",
+                () -> restTemplate.getForObject(beerUris.changes(optCursor, changesWait), BeerChangeBatch.class));
+    }
+
+    private CompletableFuture<Optional<BeerDTO>> lookupBeer(UUID beerId) {
+        CompletableFuture<Optional<BeerDTO>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<BeerDTO>> existing = inFlightLookups.putIfAbsent(beerId, lookup);
+        if (existing != null) {
+            return existing;
+        }
+
+        contextualFetchExecutor.execute(() -> {
+            try {
+                lookup.complete(getBeerById(beerId));
+            } catch (HttpClientErrorException.NotFound ex) {
+                lookup.complete(Optional.empty());
+            } catch (Throwable ex) {
+                lookup.completeExceptionally(ex);
+            } finally {
+                inFlightLookups.remove(beerId, lookup);
+            }
+        });
+        return lookup;
+    }
+
+    private ObjectReader beerReaderFor(MediaType contentType) {
+        if (smileBeerReader != null && contentType != null && contentType.isCompatibleWith(SMILE)) {
+            return smileBeerReader;
+        }
+        return beerReader;
+    }
+
+    private static Optional<UUID> idFromLocation(URI location) {
+        String path = location.getPath();
+        try {
+            return Optional.of(UUID.fromString(path.substring(path.lastIndexOf('/') + 1)));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the version in the {@code ETag}, or {@code null} when there is none, as the version the caller sent is
+     * at least one behind after a write
+     */
+    private static Integer versionFrom(HttpHeaders headers) {
+        String eTag = headers.getETag();
+        if (eTag == null) {
+            return null;
+        }
+        String value = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        try {
+            return Integer.valueOf(value.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
 
-        ResponseEntity<BeerDTOPageImpl> forEntity = restTemplate.getForEntity(builder.toUriString(), BeerDTOPageImpl.class);
-        return forEntity.getBody();
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
     }
 }
@@ -0,0 +1,174 @@
+package guru.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-operation timers for {@link BeerClientImpl}. Registered as an interceptor on the client's RestTemplate so the
+ * HTTP status of the last exchange on the calling thread can be attached to the operation timer. A nested operation,
+ * such as the read-after-write GET inside {@code updateBeer}, restores the outer operation's status when it ends.
+ * Requests that fail without a response are tagged {@code IO_ERROR}. Meters are registered once per tag combination.
+ */
+class BeerClientMetrics implements ClientHttpRequestInterceptor {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<HttpStatusCode> lastStatus = new ThreadLocal<>();
+    private final Map<OperationKey, Timer> operationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> deserializationTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> payloadSizes = new ConcurrentHashMap<>();
+
+    BeerClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> T record(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        HttpStatusCode outerStatus = lastStatus.get();
+        lastStatus.remove();
+        String outcome = Outcome.UNKNOWN.name();
+        String status = "NONE";
+        try {
+            T result = call.get();
+            HttpStatusCode statusCode = lastStatus.get();
+            outcome = statusCode != null ? Outcome.forStatus(statusCode.value()).name() : Outcome.SUCCESS.name();
+            status = statusCode != null ? String.valueOf(statusCode.value()) : "NONE";
+            return result;
+        } catch (RestClientResponseException ex) {
+            outcome = Outcome.forStatus(ex.getStatusCode().value()).name();
+            status = String.valueOf(ex.getStatusCode().value());
+            throw ex;
+        } catch (ResourceAccessException ex) {
+            status = "IO_ERROR";
+            throw ex;
+        } finally {
+            if (outerStatus != null) {
+                lastStatus.set(outerStatus);
+            } else {
+                lastStatus.remove();
+            }
+            sample.stop(operationTimer(new OperationKey(operation, outcome, status)));
+        }
+    }
+
+    <T> ResponseExtractor<T> timedExtractor(String operation, ResponseExtractor<T> extractor) {
+        return response -> {
+            CountingInputStream body = new CountingInputStream(response.getBody());
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return extractor.extractData(new CountingResponse(response, body));
+            } finally {
+                sample.stop(deserializationTimer(operation));
+                payloadSize(operation).record(body.count);
+            }
+        };
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        lastStatus.set(response.getStatusCode());
+        return response;
+    }
+
+    private Timer operationTimer(OperationKey key) {
+        return operationTimers.computeIfAbsent(key, k -> Timer.builder("beer.client.operations")
+                .tag("operation", k.operation())
+                .tag("outcome", k.outcome())
+                .tag("status", k.status())
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Timer deserializationTimer(String operation) {
+        return deserializationTimers.computeIfAbsent(operation, op -> Timer.builder("beer.client.deserialization")
+                .tag("operation", op)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary payloadSize(String operation) {
+        return payloadSizes.computeIfAbsent(operation, op -> DistributionSummary.builder("beer.client.response.size")
+                .baseUnit("bytes")
+                .tag("operation", op)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry));
+    }
+
+    private record OperationKey(String operation, String outcome, String status) {
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    private record CountingResponse(ClientHttpResponse delegate, InputStream body) implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Page;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * Pays the cost of the first calls to the beer API during startup instead of on live traffic: resolves the API host,
+ * fetches the OAuth token, opens {@code connections} pooled connections with concurrent calls, and runs
+ * {@code iterations} rounds of {@code listBeers} and {@code getBeerById} so the JIT compiles the converter paths.
+ * <p>
+ * {@link #start()} blocks while the context refreshes, and Spring Boot only reports the application as ready once
+ * the refresh has completed, so readiness follows the warm-up. The warm-up gives up after {@code timeout}, and
+ * failures are logged rather than failing the startup.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rest.template.warmUp", name = "enabled", havingValue = "true")
+public class BeerClientWarmUp implements SmartLifecycle {
+
+    private final BeerClientImpl beerClient;
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+    private final ClientRegistration clientRegistration;
+    private final String rootUrl;
+    private final int connections;
+    private final int iterations;
+    private final Duration timeout;
+    private final Timer warmUpTimer;
+
+    private volatile boolean running;
+
+    @Autowired
+    public BeerClientWarmUp(BeerClientImpl beerClient,
+                            OAuth2AuthorizedClientManager authorizedClientManager,
+                            ClientRegistrationRepository clientRegistrationRepository,
+                            @Value("${rest.template.rootUrl}") String rootUrl,
+                            @Value("${rest.template.warmUp.connections:8}") int connections,
+                            @Value("${rest.template.warmUp.iterations:20}") int iterations,
+                            @Value("${rest.template.warmUp.timeout:30s}") Duration timeout,
+                            MeterRegistry meterRegistry) {
+        this.beerClient = beerClient;
+        this.authorizedClientManager = authorizedClientManager;
+        this.clientRegistration = clientRegistrationRepository.findByRegistrationId("springauth");
+        this.rootUrl = rootUrl;
+        this.connections = connections;
+        this.iterations = iterations;
+        this.timeout = timeout;
+        this.warmUpTimer = meterRegistry.timer("beer.client.warmup");
+    }
+
+    @Override
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-warmup-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(connections, 1), threadFactory);
+        long start = System.nanoTime();
+
+        try {
+            CompletableFuture.runAsync(this::resolveHost, executor)
+                    .thenRun(this::authorize)
+                    .thenCompose(ignored -> openConnections(executor))
+                    .thenRun(this::exerciseCalls)
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Beer client warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException ex) {
+            log.warn("Beer client warm-up did not finish within {}, continuing cold", timeout);
+        } catch (ExecutionException ex) {
+            log.warn("Beer client warm-up failed, continuing cold", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            warmUpTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            running = true;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void resolveHost() {
+        String host = URI.create(rootUrl).getHost();
+        try {
+            InetAddress.getAllByName(host);
+        } catch (UnknownHostException ex) {
+            throw new IllegalStateException("Cannot resolve " + host, ex);
+        }
+    }
+
+    /**
+     * Authorizes as the same principal as {@code OAuthClientInterceptor}, so its first token lookup is served from
+     * the authorized client service.
+     */
+    private void authorize() {
+        authorizedClientManager.authorize(OAuth2AuthorizeRequest
+                .withClientRegistrationId(clientRegistration.getRegistrationId())
+                .principal(clientRegistration.getClientId())
+                .build());
+    }
+
+    private CompletableFuture<Void> openConnections(ExecutorService executor) {
+        List<CompletableFuture<Void>> calls = IntStream.range(0, connections)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> beerClient.listBeers(Optional.empty(), Optional.empty(),
+                        Optional.empty(), Optional.of(1), Optional.of(1)), executor))
+                .toList();
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new));
+    }
+
+    private void exerciseCalls() {
+        for (int i = 0; i < iterations; i++) {
+            Page<BeerDTO> page = beerClient.listBeers(Optional.empty(), Optional.empty(), Optional.empty(),
+                    Optional.of(1), Optional.of(25));
+            if (!page.getContent().isEmpty()) {
+                beerClient.getBeerById(page.getContent().get(i % page.getContent().size()).getId());
+            }
+        }
+    }
+}
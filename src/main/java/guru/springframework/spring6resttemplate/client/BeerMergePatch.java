@@ -0,0 +1,57 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Builds a JSON Merge Patch (RFC 7396) holding only the fields of a beer that differ from a baseline. A field
+ * cleared in the updated beer is sent as {@code null}, which removes it. {@code id}, {@code version} and the
+ * timestamps are owned by the server and never sent.
+ */
+final class BeerMergePatch {
+
+    static final MediaType MEDIA_TYPE = new MediaType("application", "merge-patch+json");
+
+    private BeerMergePatch() {
+    }
+
+    static ObjectNode diff(BeerDTO baseline, BeerDTO updated) {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+
+        if (!Objects.equals(baseline.getBeerName(), updated.getBeerName())) {
+            patch.put("beerName", updated.getBeerName());
+        }
+        if (baseline.getBeerStyle() != updated.getBeerStyle()) {
+            patch.put("beerStyle", updated.getBeerStyle() == null ? null : updated.getBeerStyle().name());
+        }
+        if (!Objects.equals(baseline.getUpc(), updated.getUpc())) {
+            patch.put("upc", updated.getUpc());
+        }
+        if (!Objects.equals(baseline.getQuantityOnHand(), updated.getQuantityOnHand())) {
+            patch.put("quantityOnHand", updated.getQuantityOnHand());
+        }
+        if (!samePrice(baseline.getPrice(), updated.getPrice())) {
+            patch.put("price", updated.getPrice());
+        }
+        return patch;
+    }
+
+    static boolean isUnchanged(BeerDTO baseline, BeerDTO updated) {
+        return diff(baseline, updated).isEmpty();
+    }
+
+    /**
+     * 12.9 and 12.90 are the same price; {@link BigDecimal#equals} would send them as a change.
+     */
+    private static boolean samePrice(BigDecimal baseline, BigDecimal updated) {
+        if (baseline == null || updated == null) {
+            return baseline == updated;
+        }
+        return baseline.compareTo(updated) == 0;
+    }
+}
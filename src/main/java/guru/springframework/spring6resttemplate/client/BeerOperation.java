@@ -0,0 +1,57 @@
+package guru.springframework.spring6resttemplate.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+
+/**
+ * The beer service operations as seen on the wire. {@link #key()} matches the {@code operation} tag of the client
+ * metrics and names per-operation properties, e.g. {@code rest.template.circuitBreaker.listBeers.slowCallDuration}.
+ */
+public enum BeerOperation {
+    GET_BEER_BY_ID("getBeerById"),
+    LIST_BEERS("listBeers"),
+    CREATE_BEER("createBeer"),
+    UPDATE_BEER("updateBeer"),
+    PATCH_BEER("patchBeer"),
+    DELETE_BEER("deleteBeer"),
+    POLL_CHANGES("pollChanges"),
+    OTHER("other");
+
+    private final String key;
+
+    BeerOperation(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static BeerOperation from(HttpRequest request) {
+        return from(request.getMethod(), request.getURI().getPath());
+    }
+
+    public static BeerOperation from(HttpMethod method, String path) {
+        boolean collection = path.endsWith(BeerClientImpl.BEER_PATH);
+
+        if (method == HttpMethod.GET) {
+            if (path.endsWith(BeerClientImpl.BEER_CHANGES_PATH)) {
+                return POLL_CHANGES;
+            }
+            return collection ? LIST_BEERS : GET_BEER_BY_ID;
+        }
+        if (method == HttpMethod.POST && collection) {
+            return CREATE_BEER;
+        }
+        if (method == HttpMethod.PUT && !collection) {
+            return UPDATE_BEER;
+        }
+        if (method == HttpMethod.PATCH && !collection) {
+            return PATCH_BEER;
+        }
+        if (method == HttpMethod.DELETE && !collection) {
+            return DELETE_BEER;
+        }
+        return OTHER;
+    }
+}
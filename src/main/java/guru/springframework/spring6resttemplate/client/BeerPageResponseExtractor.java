@@ -0,0 +1,93 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads a beer page token by token, handing each element of {@code content} to the consumer as soon as it is
+ * parsed. Paging metadata may appear before or after {@code content}, either flat or nested under {@code page}.
+ * {@code null} elements of {@code content} are skipped; any other unexpected token fails the read rather than
+ * silently dropping the fields after it.
+ */
+class BeerPageResponseExtractor implements ResponseExtractor<BeerPageSummary> {
+
+    private final Function<MediaType, ObjectReader> beerReaders;
+    private final Consumer<BeerDTO> beerConsumer;
+
+    /**
+     * @param beerReaders picks the reader for the response {@code Content-Type}, e.g. JSON or Smile
+     */
+    BeerPageResponseExtractor(Function<MediaType, ObjectReader> beerReaders, Consumer<BeerDTO> beerConsumer) {
+        this.beerReaders = beerReaders;
+        this.beerConsumer = beerConsumer;
+    }
+
+    @Override
+    public BeerPageSummary extractData(ClientHttpResponse response) throws IOException {
+        BeerPageSummary.BeerPageSummaryBuilder summary = BeerPageSummary.builder();
+
+        ObjectReader beerReader = beerReaders.apply(response.getHeaders().getContentType());
+
+        try (JsonParser parser = beerReader.createParser(response.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RestClientException("Expected an object for a beer page but got " + parser.currentToken());
+            }
+            readPage(parser, summary, beerReader);
+        }
+        return summary.build();
+    }
+
+    private void readPage(JsonParser parser, BeerPageSummary.BeerPageSummaryBuilder summary, ObjectReader beerReader)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "content" -> summary.numberOfElements(readContent(parser, value, beerReader));
+                case "number" -> summary.number(parser.getIntValue());
+                case "size" -> summary.size(parser.getIntValue());
+                case "totalElements" -> summary.totalElements(parser.getLongValue());
+                case "page" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        readPage(parser, summary, beerReader);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new RestClientException("Expected a field of a beer page but got " + parser.currentToken());
+        }
+    }
+
+    private int readContent(JsonParser parser, JsonToken value, ObjectReader beerReader) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
+        }
+
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                beerConsumer.accept(beerReader.readValue(parser));
+                count++;
+            } else if (token != JsonToken.VALUE_NULL) {
+                throw new RestClientException("Expected a beer in the page content but got " + token);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,207 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.config.TrafficCaptureInterceptor;
+import guru.springframework.spring6resttemplate.config.TrafficCaptureInterceptor.CapturedExchange;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Plays a capture written by {@link TrafficCaptureInterceptor} back through a {@link BeerClient}, typically one
+ * pointed at a local stub, and reports latency histograms per operation.
+ * <p>
+ * At a finite {@code speed} every call starts at its captured offset divided by the speed, so 1 replays the
+ * original pacing and 10 compresses it tenfold. Latency is measured from that scheduled start, so calls queued
+ * behind a saturated pool of {@code concurrency} threads count as slow instead of quietly stretching the schedule.
+ * At {@link #AS_FAST_AS_POSSIBLE} the {@code concurrency} threads issue the calls back to back.
+ * <p>
+ * Calls are made through the client API, not replayed byte for byte: a patch is applied to a baseline holding only
+ * the beer id, and change feed polls and exchanges that map to no client operation are skipped.
+ */
+public class BeerTrafficReplayer {
+
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    private final BeerClient beerClient;
+    private final ObjectMapper objectMapper;
+
+    public BeerTrafficReplayer(BeerClient beerClient, ObjectMapper objectMapper) {
+        this.beerClient = beerClient;
+        this.objectMapper = objectMapper;
+    }
+
+    public Report replay(Path capture, double speed, int concurrency) {
+        try {
+            return replay(TrafficCaptureInterceptor.read(capture), speed, concurrency);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public Report replay(List<CapturedExchange> capture, double speed, int concurrency) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive, got " + speed);
+        }
+
+        List<CapturedExchange> exchanges = capture.stream()
+                .sorted(Comparator.comparingLong(CapturedExchange::startEpochNanos))
+                .toList();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LongAdder skipped = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-replay-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, threadFactory);
+        boolean paced = speed != AS_FAST_AS_POSSIBLE;
+        long firstStart = exchanges.isEmpty() ? 0 : exchanges.get(0).startEpochNanos();
+        long replayStart = System.nanoTime();
+
+        try {
+            for (CapturedExchange exchange : exchanges) {
+                String path = path(exchange.uri());
+                BeerOperation operation = BeerOperation.from(exchange.method(), path);
+                if (operation == BeerOperation.OTHER || operation == BeerOperation.POLL_CHANGES
+                        || !path.startsWith(BeerClientImpl.BEER_PATH)) {
+                    skipped.increment();
+                    continue;
+                }
+
+                long scheduled = replayStart + (long) ((exchange.startEpochNanos() - firstStart) / speed);
+                if (paced) {
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                executor.execute(() -> {
+                    long start = paced ? scheduled : System.nanoTime();
+                    String outcome = "SUCCESS";
+                    try {
+                        call(operation, exchange);
+                    } catch (RuntimeException ex) {
+                        failures.increment();
+                        outcome = "ERROR";
+                    } finally {
+                        latencyTimer(registry, operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        awaitTermination(executor);
+
+        Map<String, HistogramSnapshot> latencies = new TreeMap<>();
+        registry.find("beer.replay.latency").timers().forEach(timer -> latencies.put(
+                timer.getId().getTag("operation") + "/" + timer.getId().getTag("outcome"), timer.takeSnapshot()));
+        return new Report(Duration.ofNanos(System.nanoTime() - replayStart),
+                exchanges.size() - skipped.sum(), skipped.sum(), failures.sum(), latencies);
+    }
+
+    private void call(BeerOperation operation, CapturedExchange exchange) {
+        switch (operation) {
+            case GET_BEER_BY_ID -> beerClient.getBeerById(beerId(exchange));
+            case LIST_BEERS -> {
+                MultiValueMap<String, String> params = UriComponentsBuilder.fromUriString(exchange.uri()).build().getQueryParams();
+                beerClient.listBeers(param(params, "beerName", Function.identity()),
+                        param(params, "beerStyle", BeerStyle::valueOf),
+                        param(params, "showInventory", Boolean::valueOf),
+                        param(params, "pageNumber", Integer::valueOf),
+                        param(params, "pageSize", Integer::valueOf));
+            }
+            case CREATE_BEER -> beerClient.createBeer(beer(exchange));
+            case UPDATE_BEER -> beerClient.updateBeer(beer(exchange));
+            case PATCH_BEER -> {
+                BeerDTO baseline = BeerDTO.builder().id(beerId(exchange)).build();
+                try {
+                    BeerDTO updated = objectMapper.readerForUpdating(baseline.toBuilder().build()).readValue(exchange.body());
+                    beerClient.patchBeer(baseline, updated);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            case DELETE_BEER -> beerClient.deleteBeer(beerId(exchange));
+            default -> throw new IllegalStateException("Cannot replay " + operation);
+        }
+    }
+
+    private BeerDTO beer(CapturedExchange exchange) {
+        try {
+            return objectMapper.readValue(exchange.body(), BeerDTO.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static UUID beerId(CapturedExchange exchange) {
+        String path = path(exchange.uri());
+        return UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private static String path(String uri) {
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+
+    private static <T> Optional<T> param(MultiValueMap<String, String> params, String name, Function<String, T> parser) {
+        return Optional.ofNullable(params.getFirst(name))
+                .map(value -> parser.apply(UriUtils.decode(value, StandardCharsets.UTF_8)));
+    }
+
+    private static Timer latencyTimer(SimpleMeterRegistry registry, BeerOperation operation, String outcome) {
+        return Timer.builder("beer.replay.latency")
+                .tag("operation", operation.key())
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .publishPercentileHistogram()
+                // one bucket covering the whole replay, instead of the default two-minute rolling window
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // keep waiting for the slowest calls
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param latencies latency histograms keyed by {@code operation/outcome}, e.g. {@code listBeers/SUCCESS}
+     */
+    public record Report(Duration elapsed, long replayed, long skipped, long failures,
+                         Map<String, HistogramSnapshot> latencies) {
+    }
+}
@@ -0,0 +1,116 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.web.util.UriTemplateHandler;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds the URIs of the beer endpoints without URI templates. The root URL is resolved once through the
+ * {@link UriTemplateHandler} of the {@code RestTemplate}. Query strings are then appended to it in a per-thread
+ * buffer, with beer styles encoded up front, and the results are passed to the {@code RestTemplate} as {@link URI}s
+ * so they are not parsed and expanded again.
+ * <p>
+ * Query values are encoded like {@code UriComponentsBuilder#toUriString()} does.
+ */
+public class BeerUris {
+
+    private static final int MAX_RETAINED_BUFFER = 1024;
+
+    private final String beersUri;
+    private final String changesUri;
+    private final URI beers;
+    private final Map<BeerStyle, String> encodedStyles = new EnumMap<>(BeerStyle.class);
+    private final ThreadLocal<StringBuilder> buffers;
+
+    public BeerUris(UriTemplateHandler uriTemplateHandler) {
+        this(uriTemplateHandler.expand(BeerClientImpl.BEER_PATH).toString());
+    }
+
+    public BeerUris(String beersUri) {
+        this.beersUri = beersUri;
+        this.changesUri = beersUri + BeerClientImpl.BEER_CHANGES_PATH.substring(BeerClientImpl.BEER_PATH.length());
+        this.beers = URI.create(beersUri);
+        for (BeerStyle style : BeerStyle.values()) {
+            encodedStyles.put(style, encode(style.name()));
+        }
+        this.buffers = ThreadLocal.withInitial(() -> new StringBuilder(beersUri.length() + 96));
+    }
+
+    public URI beers() {
+        return beers;
+    }
+
+    public URI beerById(UUID beerId) {
+        return URI.create(beersUri + '/' + beerId);
+    }
+
+    /**
+     * @return the listing URI as a string, usable as a cache key; parameters in the order the API documents them
+     */
+    public String beers(Optional<String> optBeerName,
+                        Optional<BeerStyle> optBeerStyle,
+                        Optional<Boolean> optShowInventory,
+                        Optional<Integer> optPage,
+                        Optional<Integer> optSize) {
+        if (optBeerName.isEmpty() && optBeerStyle.isEmpty() && optShowInventory.isEmpty()
+                && optPage.isEmpty() && optSize.isEmpty()) {
+            return beersUri;
+        }
+
+        StringBuilder uri = buffers.get();
+        uri.setLength(0);
+        uri.append(beersUri);
+        // plain ifs rather than ifPresent, which would allocate a capturing lambda per parameter
+        if (optBeerName.isPresent()) {
+            param(uri, "beerName").append(encode(optBeerName.get()));
+        }
+        if (optBeerStyle.isPresent()) {
+            param(uri, "beerStyle").append(encodedStyles.get(optBeerStyle.get()));
+        }
+        if (optShowInventory.isPresent()) {
+            param(uri, "showInventory").append(optShowInventory.get().booleanValue());
+        }
+        if (optPage.isPresent()) {
+            param(uri, "pageNumber").append(optPage.get().intValue());
+        }
+        if (optSize.isPresent()) {
+            param(uri, "pageSize").append(optSize.get().intValue());
+        }
+
+        String result = uri.toString();
+        if (uri.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    /**
+     * @return the change feed URI; the server holds the request for up to {@code wait} while there are no changes
+     */
+    public URI changes(Optional<String> optCursor, Duration wait) {
+        StringBuilder uri = new StringBuilder(changesUri.length() + 64)
+                .append(changesUri)
+                .append("?waitSeconds=").append(wait.toSeconds());
+        if (optCursor.isPresent()) {
+            // opaque and often base64, so '+' and '/' are escaped too rather than read back as a space
+            uri.append("&cursor=").append(UriUtils.encode(optCursor.get(), StandardCharsets.UTF_8));
+        }
+        return URI.create(uri.toString());
+    }
+
+    private StringBuilder param(StringBuilder uri, String name) {
+        return uri.append(uri.length() == beersUri.length() ? '?' : '&').append(name).append('=');
+    }
+
+    private static String encode(String value) {
+        return UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8);
+    }
+}
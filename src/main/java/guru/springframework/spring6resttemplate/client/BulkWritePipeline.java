@@ -0,0 +1,97 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BulkWriteReport;
+import guru.springframework.spring6resttemplate.model.BulkWriteResult;
+import guru.springframework.spring6resttemplate.model.BulkWriteStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Groups items into batches and writes up to {@code maxConcurrentBatches} batches at a time. Reading the source
+ * blocks while that many batches are in flight, so arbitrarily large inputs are consumed at the pace of the server.
+ */
+class BulkWritePipeline {
+
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxConcurrentBatches;
+
+    BulkWritePipeline(Executor executor, int batchSize, int maxConcurrentBatches) {
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxConcurrentBatches = Math.max(1, maxConcurrentBatches);
+    }
+
+    <T> BulkWriteReport run(Iterable<T> items, Function<T, UUID> idOf, Function<T, Optional<BeerDTO>> write) {
+        Semaphore permits = new Semaphore(maxConcurrentBatches);
+        List<CompletableFuture<List<BulkWriteResult>>> batches = new ArrayList<>();
+
+        List<T> batch = new ArrayList<>(batchSize);
+        long index = 0;
+        long batchStart = 0;
+        for (T item : items) {
+            batch.add(item);
+            index++;
+            if (batch.size() == batchSize) {
+                batches.add(submit(permits, batch, batchStart, idOf, write));
+                batch = new ArrayList<>(batchSize);
+                batchStart = index;
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(submit(permits, batch, batchStart, idOf, write));
+        }
+
+        List<BulkWriteResult> results = new ArrayList<>((int) Math.min(index, Integer.MAX_VALUE));
+        batches.forEach(future -> results.addAll(future.join()));
+        return new BulkWriteReport(results);
+    }
+
+    private <T> CompletableFuture<List<BulkWriteResult>> submit(Semaphore permits, List<T> batch, long batchStart,
+                                                                Function<T, UUID> idOf,
+                                                                Function<T, Optional<BeerDTO>> write) {
+        permits.acquireUninterruptibly();
+        try {
+            return CompletableFuture.supplyAsync(() -> writeBatch(batch, batchStart, idOf, write), executor)
+                    .whenComplete((results, ex) -> permits.release());
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private static <T> List<BulkWriteResult> writeBatch(List<T> batch, long batchStart,
+                                                        Function<T, UUID> idOf,
+                                                        Function<T, Optional<BeerDTO>> write) {
+        List<BulkWriteResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            T item = batch.get(i);
+            BulkWriteResult.BulkWriteResultBuilder result = BulkWriteResult.builder()
+                    .index(batchStart + i)
+                    .beerId(idOf.apply(item));
+            try {
+                Optional<BeerDTO> written = write.apply(item);
+                result.status(BulkWriteStatus.SUCCESS);
+                written.ifPresent(beerDTO -> result.beer(beerDTO).beerId(beerDTO.getId()));
+            } catch (HttpClientErrorException ex) {
+                boolean conflict = ex.getStatusCode().isSameCodeAs(HttpStatus.CONFLICT)
+                        || ex.getStatusCode().isSameCodeAs(HttpStatus.PRECONDITION_FAILED);
+                result.status(conflict ? BulkWriteStatus.CONFLICT : BulkWriteStatus.FAILED).message(ex.getMessage());
+            } catch (RuntimeException ex) {
+                result.status(BulkWriteStatus.FAILED).message(ex.getMessage());
+            }
+            results.add(result.build());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,367 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import guru.springframework.spring6resttemplate.model.BulkWriteReport;
+import guru.springframework.spring6resttemplate.model.BulkWriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Caches beers and beer pages in front of {@link BeerClientImpl}. Entries are served without a request while
+ * fresh, revalidated with {@code If-None-Match}/{@code If-Modified-Since} once stale, and kept until evicted by
+ * the size-bounded W-TinyLFU policy or the stale retention period.
+ * <p>
+ * Both caches are bound to Micrometer as {@code cache.*} meters tagged {@code beer.client.beers} and
+ * {@code beer.client.pages}; revalidations answered with 304 count as {@code beer.client.cache.not.modified}.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(prefix = "rest.template.cache", name = "enabled", havingValue = "true")
+public class CachingBeerClient implements BeerClient {
+
+    private final BeerClientImpl delegate;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    private final Cache<UUID, CachedResponse<BeerDTO>> beers;
+    private final Cache<String, CachedResponse<Page<BeerDTO>>> pages;
+    private final Counter notModified;
+
+    @Autowired
+    public CachingBeerClient(BeerClientImpl delegate,
+                             @Value("${rest.template.cache.maximumSize:10000}") long maximumSize,
+                             @Value("${rest.template.cache.timeToLive:30s}") Duration timeToLive,
+                             @Value("${rest.template.cache.staleRetention:10m}") Duration staleRetention,
+                             MeterRegistry meterRegistry) {
+        this(delegate, maximumSize, timeToLive, staleRetention, meterRegistry, Clock.systemUTC());
+    }
+
+    CachingBeerClient(BeerClientImpl delegate, long maximumSize, Duration timeToLive, Duration staleRetention,
+                      MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.beers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(staleRetention)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maximumSize / 100))
+                .expireAfterWrite(staleRetention)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, beers, "beer.client.beers");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "beer.client.pages");
+        this.notModified = meterRegistry.counter("beer.client.cache.not.modified");
+    }
+
+    @Override
+    public Optional<BeerDTO> createBeer(BeerDTO beerDTO) {
+        Optional<BeerDTO> created = delegate.createBeer(beerDTO);
+        created.ifPresent(this::writeThrough);
+        pages.invalidateAll();
+        return created;
+    }
+
+    @Override
+    public Optional<BeerDTO> getBeerById(UUID beerId) {
+        CachedResponse<BeerDTO> cached = beers.getIfPresent(beerId);
+        Instant now = clock.instant();
+
+        if (cached != null && cached.isFresh(now, timeToLive)) {
+            return Optional.of(copy(cached.value));
+        }
+
+        ResponseEntity<BeerDTO> response;
+        try {
+            response = delegate.getBeerEntity(beerId, conditionalHeaders(cached));
+        } catch (HttpClientErrorException.NotFound ex) {
+            beers.invalidate(beerId);
+            throw ex;
+        }
+
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            notModified.increment();
+            beers.put(beerId, cached.revalidated(now));
+            return Optional.of(copy(cached.value));
+        }
+
+        BeerDTO beerDTO = response.getBody();
+        if (beerDTO != null) {
+            beers.put(beerId, CachedResponse.of(beerDTO, response.getHeaders(), now));
+        }
+        return Optional.ofNullable(beerDTO).map(CachingBeerClient::copy);
+    }
+
+    @Override
+    public Map<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds) {
+        Instant now = clock.instant();
+        Map<UUID, BeerDTO> found = new LinkedHashMap<>();
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID beerId : beerIds) {
+            CachedResponse<BeerDTO> cached = beers.getIfPresent(beerId);
+            if (cached != null && cached.isFresh(now, timeToLive)) {
+                found.put(beerId, copy(cached.value));
+            } else {
+                missing.add(beerId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            delegate.getBeersByIds(missing).forEach((beerId, beerDTO) -> {
+                writeThrough(beerDTO);
+                found.put(beerId, copy(beerDTO));
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(Optional<String> optBeerName,
+                                   Optional<BeerStyle> optBeerStyle,
+                                   Optional<Boolean> optShowInventory,
+                                   Optional<Integer> optPage,
+                                   Optional<Integer> optSize) {
+        String uri = delegate.beersUri(optBeerName, optBeerStyle, optShowInventory, optPage, optSize);
+        CachedResponse<Page<BeerDTO>> cached = pages.getIfPresent(uri);
+        Instant now = clock.instant();
+
+        if (cached != null && cached.isFresh(now, timeToLive)) {
+            return copy(cached.value);
+        }
+
+        ResponseEntity<BeerDTOPageImpl> response = delegate.listBeersEntity(uri, conditionalHeaders(cached));
+
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            notModified.increment();
+            pages.put(uri, cached.revalidated(now));
+            return copy(cached.value);
+        }
+
+        Page<BeerDTO> page = response.getBody();
+        if (page != null) {
+            page.forEach(this::refreshFromListing);
+            pages.put(uri, CachedResponse.of(page, response.getHeaders(), now));
+            return copy(page);
+        }
+        return null;
+    }
+
+    @Override
+    public BeerPageSummary listBeers(Optional<String> optBeerName,
+                                     Optional<BeerStyle> optBeerStyle,
+                                     Optional<Boolean> optShowInventory,
+                                     Optional<Integer> optPage,
+                                     Optional<Integer> optSize,
+                                     Consumer<BeerDTO> beerConsumer) {
+        return delegate.listBeers(optBeerName, optBeerStyle, optShowInventory, optPage, optSize,
+                beerDTO -> {
+                    refreshFromListing(beerDTO);
+                    beerConsumer.accept(beerDTO);
+                });
+    }
+
+    @Override
+    public Stream<BeerDTO> streamBeers(Optional<String> optBeerName,
+                                       Optional<BeerStyle> optBeerStyle,
+                                       Optional<Boolean> optShowInventory,
+                                       Optional<Integer> optSize) {
+        return delegate.streamBeers(optBeerName, optBeerStyle, optShowInventory, optSize)
+                .peek(this::refreshFromListing);
+    }
+
+    /**
+     * Sends only the changed fields, or nothing at all, when the cache holds the version of the beer being updated.
+     */
+    @Override
+    public Optional<BeerDTO> updateBeer(BeerDTO beerDTO) {
+        CachedResponse<BeerDTO> cached = beerDTO.getId() == null ? null : beers.getIfPresent(beerDTO.getId());
+        if (cached != null && cached.value.getVersion() != null
+                && cached.value.getVersion().equals(beerDTO.getVersion())) {
+            return patchBeer(cached.value, beerDTO);
+        }
+
+        beers.invalidate(beerDTO.getId());
+        Optional<BeerDTO> updated = delegate.updateBeer(beerDTO);
+        updated.ifPresent(this::writeThrough);
+        pages.invalidateAll();
+        return updated;
+    }
+
+    @Override
+    public Optional<BeerDTO> patchBeer(BeerDTO baseline, BeerDTO updated) {
+        if (BeerMergePatch.isUnchanged(baseline, updated)) {
+            return Optional.of(copy(baseline));
+        }
+
+        beers.invalidate(baseline.getId());
+        Optional<BeerDTO> patched = delegate.patchBeer(baseline, updated);
+        patched.ifPresent(this::writeThrough);
+        pages.invalidateAll();
+        return patched;
+    }
+
+    @Override
+    public void deleteBeer(UUID id) {
+        beers.invalidate(id);
+        pages.invalidateAll();
+        delegate.deleteBeer(id);
+    }
+
+    @Override
+    public BulkWriteReport createBeers(Iterable<BeerDTO> beerDTOs) {
+        return writeThrough(delegate.createBeers(beerDTOs));
+    }
+
+    @Override
+    public BulkWriteReport updateBeers(Iterable<BeerDTO> beerDTOs) {
+        return writeThrough(delegate.updateBeers(beerDTOs));
+    }
+
+    @Override
+    public BulkWriteReport deleteBeers(Iterable<UUID> ids) {
+        BulkWriteReport report = delegate.deleteBeers(ids);
+        report.getResults().forEach(result -> beers.invalidate(result.getBeerId()));
+        pages.invalidateAll();
+        return report;
+    }
+
+    @Override
+    public BeerChangeSubscription subscribeChanges(Consumer<BeerDTO> listener) {
+        return subscribeChanges(Optional.empty(), listener);
+    }
+
+    /**
+     * Refreshes cached beers from the change feed before the listener sees them, and drops the cached pages.
+     */
+    @Override
+    public BeerChangeSubscription subscribeChanges(Optional<String> optCursor, Consumer<BeerDTO> listener) {
+        return delegate.subscribeChanges(optCursor, beerDTO -> {
+            refreshFromListing(beerDTO);
+            pages.invalidateAll();
+            listener.accept(beerDTO);
+        });
+    }
+
+    public CacheStats beerCacheStats() {
+        return beers.stats();
+    }
+
+    public CacheStats pageCacheStats() {
+        return pages.stats();
+    }
+
+    public long notModifiedCount() {
+        return (long) notModified.count();
+    }
+
+    /**
+     * Caches a written beer only when its version came back from the server (response body or ETag).
+     * Without it the beer is the caller's own copy, so the entry is dropped and the next read refetches.
+     */
+    private void writeThrough(BeerDTO beerDTO) {
+        if (beerDTO.getId() == null) {
+            return;
+        }
+        if (beerDTO.getVersion() != null) {
+            beers.put(beerDTO.getId(), CachedResponse.of(copy(beerDTO), HttpHeaders.EMPTY, clock.instant()));
+        } else {
+            beers.invalidate(beerDTO.getId());
+        }
+    }
+
+    private BulkWriteReport writeThrough(BulkWriteReport report) {
+        for (BulkWriteResult result : report.getResults()) {
+            if (result.getBeer() != null) {
+                writeThrough(result.getBeer());
+            } else if (result.getBeerId() != null) {
+                beers.invalidate(result.getBeerId());
+            }
+        }
+        pages.invalidateAll();
+        return report;
+    }
+
+    private void refreshFromListing(BeerDTO listed) {
+        if (listed.getId() == null) {
+            return;
+        }
+        beers.asMap().computeIfPresent(listed.getId(), (beerId, cached) -> {
+            if (Objects.equals(cached.value.getVersion(), listed.getVersion()) && listed.getVersion() != null) {
+                return cached.revalidated(clock.instant());
+            }
+            return CachedResponse.of(copy(listed), HttpHeaders.EMPTY, clock.instant());
+        });
+    }
+
+    private static HttpHeaders conditionalHeaders(CachedResponse<?> cached) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cached != null) {
+            if (cached.eTag != null) {
+                headers.setIfNoneMatch(cached.eTag);
+            }
+            if (cached.lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        }
+        return headers;
+    }
+
+    private static BeerDTO copy(BeerDTO beerDTO) {
+        return beerDTO.toBuilder().build();
+    }
+
+    private static Page<BeerDTO> copy(Page<BeerDTO> page) {
+        return new BeerDTOPageImpl(page.getContent().stream().map(CachingBeerClient::copy).toList(),
+                page.getPageable(), page.getTotalElements());
+    }
+
+    private record CachedResponse<T>(T value, String eTag, String lastModified, Instant validatedAt) {
+
+        static <T> CachedResponse<T> of(T value, HttpHeaders headers, Instant now) {
+            return new CachedResponse<>(value, headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), now);
+        }
+
+        boolean isFresh(Instant now, Duration timeToLive) {
+            return now.isBefore(validatedAt.plus(timeToLive));
+        }
+
+        CachedResponse<T> revalidated(Instant now) {
+            return new CachedResponse<>(value, eTag, lastModified, now);
+        }
+    }
+}
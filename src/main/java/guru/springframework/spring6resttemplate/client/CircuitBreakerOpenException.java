@@ -0,0 +1,20 @@
+package guru.springframework.spring6resttemplate.client;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown without contacting the beer service while the circuit breaker of an operation is open.
+ */
+public class CircuitBreakerOpenException extends RestClientException {
+
+    private final BeerOperation operation;
+
+    public CircuitBreakerOpenException(BeerOperation operation) {
+        super("Circuit breaker for " + operation.key() + " is open");
+        this.operation = operation;
+    }
+
+    public BeerOperation getOperation() {
+        return operation;
+    }
+}
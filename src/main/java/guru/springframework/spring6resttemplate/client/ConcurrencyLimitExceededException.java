@@ -0,0 +1,21 @@
+package guru.springframework.spring6resttemplate.client;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown without contacting the beer service when an operation already has as many requests in flight as its
+ * current adaptive limit allows.
+ */
+public class ConcurrencyLimitExceededException extends RestClientException {
+
+    private final BeerOperation operation;
+
+    public ConcurrencyLimitExceededException(BeerOperation operation, int limit) {
+        super("Concurrency limit of " + limit + " reached for " + operation.key());
+        this.operation = operation;
+    }
+
+    public BeerOperation getOperation() {
+        return operation;
+    }
+}
@@ -0,0 +1,105 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+/**
+ * Walks every page of a listing, keeping up to {@code prefetchDepth} page requests in flight ahead of the
+ * page being consumed. Page numbers passed to the fetcher start at 1.
+ */
+class PrefetchingPageIterator implements Iterator<BeerDTO>, AutoCloseable {
+
+    private final IntFunction<Page<BeerDTO>> pageFetcher;
+    private final Executor executor;
+    private final int prefetchDepth;
+
+    private final Deque<CompletableFuture<Page<BeerDTO>>> pending = new ArrayDeque<>();
+    private Iterator<BeerDTO> current = Collections.emptyIterator();
+    private int nextPageNumber = 1;
+    private int lastPageNumber = 1;
+    private boolean exhausted;
+
+    PrefetchingPageIterator(IntFunction<Page<BeerDTO>> pageFetcher, Executor executor, int prefetchDepth) {
+        this.pageFetcher = pageFetcher;
+        this.executor = executor;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (exhausted) {
+                return false;
+            }
+            advance();
+        }
+        return true;
+    }
+
+    @Override
+    public BeerDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        pending.forEach(page -> page.cancel(false));
+        pending.clear();
+        current = Collections.emptyIterator();
+    }
+
+    private void advance() {
+        prefetch();
+        if (pending.isEmpty()) {
+            exhausted = true;
+            return;
+        }
+
+        Page<BeerDTO> page = join(pending.poll());
+        if (page == null || page.getContent().isEmpty() || !page.hasNext()) {
+            lastPageNumber = 0;
+            close();
+            exhausted = true;
+            if (page != null) {
+                current = page.getContent().iterator();
+            }
+            return;
+        }
+
+        lastPageNumber = page.getTotalPages();
+        current = page.getContent().iterator();
+        prefetch();
+    }
+
+    private void prefetch() {
+        while (pending.size() < prefetchDepth && nextPageNumber <= lastPageNumber) {
+            int pageNumber = nextPageNumber++;
+            pending.add(CompletableFuture.supplyAsync(() -> pageFetcher.apply(pageNumber), executor));
+        }
+    }
+
+    private static Page<BeerDTO> join(CompletableFuture<Page<BeerDTO>> page) {
+        try {
+            return page.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+}
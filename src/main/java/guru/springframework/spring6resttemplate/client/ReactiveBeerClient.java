@@ -0,0 +1,33 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReactiveBeerClient {
+
+    /**
+     * @return the beer, or an empty {@link Mono} if it does not exist
+     */
+    Mono<BeerDTO> getBeerById(UUID beerId);
+
+    Mono<Page<BeerDTO>> listBeers(Optional<String> optBeerName,
+                                  Optional<BeerStyle> optBeerStyle,
+                                  Optional<Boolean> optShowInventory,
+                                  Optional<Integer> optPage,
+                                  Optional<Integer> optSize);
+
+    /**
+     * Beers of all pages, in order. The next page is only requested once the beers of the previous one have been
+     * consumed.
+     */
+    Flux<BeerDTO> streamBeers(Optional<String> optBeerName,
+                              Optional<BeerStyle> optBeerStyle,
+                              Optional<Boolean> optShowInventory,
+                              Optional<Integer> optSize);
+}
@@ -0,0 +1,87 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static guru.springframework.spring6resttemplate.client.BeerClientImpl.BEER_BY_ID_PATH;
+import static guru.springframework.spring6resttemplate.client.BeerClientImpl.BEER_PATH;
+
+@Service
+public class ReactiveBeerClientImpl implements ReactiveBeerClient {
+
+    private final WebClient webClient;
+
+    public ReactiveBeerClientImpl(WebClient beerWebClient) {
+        this.webClient = beerWebClient;
+    }
+
+    @Override
+    public Mono<BeerDTO> getBeerById(UUID beerId) {
+        return webClient.get()
+                .uri(BEER_BY_ID_PATH, beerId)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(BeerDTO.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Page<BeerDTO>> listBeers(Optional<String> optBeerName,
+                                         Optional<BeerStyle> optBeerStyle,
+                                         Optional<Boolean> optShowInventory,
+                                         Optional<Integer> optPage,
+                                         Optional<Integer> optSize) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path(BEER_PATH)
+                        .queryParamIfPresent("beerName", optBeerName)
+                        .queryParamIfPresent("beerStyle", optBeerStyle)
+                        .queryParamIfPresent("showInventory", optShowInventory)
+                        .queryParamIfPresent("pageNumber", optPage)
+                        .queryParamIfPresent("pageSize", optSize)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(BeerDTOPageImpl.class)
+                .map(page -> page);
+    }
+
+    @Override
+    public Flux<BeerDTO> streamBeers(Optional<String> optBeerName,
+                                     Optional<BeerStyle> optBeerStyle,
+                                     Optional<Boolean> optShowInventory,
+                                     Optional<Integer> optSize) {
+        // expand only subscribes to the next page when downstream demand reaches it, and a prefetch of one page
+        // keeps at most a single page buffered ahead of the consumer
+        return page(1, optBeerName, optBeerStyle, optShowInventory, optSize)
+                .expand(numberedPage -> isLast(numberedPage.getT2())
+                        ? Mono.empty()
+                        : page(numberedPage.getT1() + 1, optBeerName, optBeerStyle, optShowInventory, optSize))
+                .concatMapIterable(numberedPage -> numberedPage.getT2().getContent(), 1);
+    }
+
+    private Mono<Tuple2<Integer, Page<BeerDTO>>> page(int pageNumber,
+                                                      Optional<String> optBeerName,
+                                                      Optional<BeerStyle> optBeerStyle,
+                                                      Optional<Boolean> optShowInventory,
+                                                      Optional<Integer> optSize) {
+        return listBeers(optBeerName, optBeerStyle, optShowInventory, Optional.of(pageNumber), optSize)
+                .map(page -> Tuples.of(pageNumber, page));
+    }
+
+    private static boolean isLast(Page<BeerDTO> page) {
+        return page.getContent().isEmpty() || !page.hasNext();
+    }
+}
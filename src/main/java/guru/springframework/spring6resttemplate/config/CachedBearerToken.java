@@ -0,0 +1,170 @@
+package guru.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current bearer header for one client registration. Reads are a single volatile load; the token is
+ * refreshed in the background once it enters the refresh window, and at most one fetch is in flight at a time.
+ * A failed background refresh is logged and counted; the current token keeps being used until it expires, and the
+ * next background attempt waits for a backoff that doubles per consecutive failure and stays under half the time
+ * left until expiry.
+ * The refresh and expiry deadlines are kept as {@code nanoTime} ticks, so the hot path compares primitives and does
+ * not allocate; the {@link Clock} is only consulted when a token arrives.
+ */
+@Slf4j
+class CachedBearerToken {
+
+    private static final long INITIAL_REFRESH_BACKOFF_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int MAX_REFRESH_BACKOFF_DOUBLINGS = 10;
+
+    private final String registrationId;
+    private final Supplier<OAuth2AccessToken> tokenSupplier;
+    private final Duration refreshSkew;
+    private final Executor refreshExecutor;
+    private final Counter refreshFailures;
+    private final Clock clock;
+    private final LongSupplier nanoTime;
+
+    private final AtomicReference<Token> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Token>> inFlight = new AtomicReference<>();
+    private volatile int refreshFailureStreak;
+    private volatile long nextRefreshAttempt;
+
+    CachedBearerToken(String registrationId, Supplier<OAuth2AccessToken> tokenSupplier, Duration refreshSkew,
+                      Executor refreshExecutor, Counter refreshFailures, Clock clock, LongSupplier nanoTime) {
+        this.registrationId = registrationId;
+        this.tokenSupplier = tokenSupplier;
+        this.refreshSkew = refreshSkew;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshFailures = refreshFailures;
+        this.clock = clock;
+        this.nanoTime = nanoTime;
+    }
+
+    String bearerHeader() {
+        Token token = current.get();
+        if (token != null) {
+            long now = nanoTime.getAsLong();
+            if (now - token.refreshDeadline < 0) {
+                return token.header;
+            }
+            if (now - token.expiryDeadline < 0) {
+                if (refreshFailureStreak == 0 || now - nextRefreshAttempt >= 0) {
+                    refresh(true);
+                }
+                return token.header;
+            }
+        }
+        return await(refresh(false)).header;
+    }
+
+    /**
+     * @return whether the rejected token was the current one and has been dropped
+     */
+    boolean invalidate(String rejectedHeader) {
+        Token token = current.get();
+        return token != null && token.header.equals(rejectedHeader) && current.compareAndSet(token, null);
+    }
+
+    private CompletableFuture<Token> refresh(boolean background) {
+        while (true) {
+            CompletableFuture<Token> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<Token> fetch = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, fetch)) {
+                if (background) {
+                    refreshExecutor.execute(() -> load(fetch, true));
+                } else {
+                    load(fetch, false);
+                }
+                return fetch;
+            }
+        }
+    }
+
+    private void load(CompletableFuture<Token> fetch, boolean background) {
+        try {
+            Token token = toToken(tokenSupplier.get());
+            current.set(token);
+            refreshFailureStreak = 0;
+            fetch.complete(token);
+        } catch (Throwable ex) {
+            if (background) {
+                refreshFailures.increment();
+                Token token = current.get();
+                Duration backoff = backOffRefresh(token);
+                log.warn("Background refresh of the OAuth token for registration {} failed, current token expires at {}, "
+                        + "next attempt in {}", registrationId, token != null ? token.expiresAt : null, backoff, ex);
+            }
+            fetch.completeExceptionally(ex);
+        } finally {
+            inFlight.compareAndSet(fetch, null);
+        }
+    }
+
+    /**
+     * Only the thread holding the in-flight fetch gets here, so the streak is not updated concurrently.
+     */
+    private Duration backOffRefresh(Token token) {
+        int streak = refreshFailureStreak + 1;
+        long now = nanoTime.getAsLong();
+        long backoff = INITIAL_REFRESH_BACKOFF_NANOS << Math.min(streak - 1, MAX_REFRESH_BACKOFF_DOUBLINGS);
+        if (token != null) {
+            backoff = Math.max(0, Math.min(backoff, (token.expiryDeadline - now) / 2));
+        }
+        nextRefreshAttempt = now + backoff;
+        refreshFailureStreak = streak;
+        return Duration.ofNanos(backoff);
+    }
+
+    private Token toToken(OAuth2AccessToken accessToken) {
+        long nowNanos = nanoTime.getAsLong();
+        Instant now = clock.instant();
+        Instant issuedAt = accessToken.getIssuedAt() != null ? accessToken.getIssuedAt() : now;
+        Instant expiresAt = accessToken.getExpiresAt() != null ? accessToken.getExpiresAt() : Instant.MAX;
+        Duration halfLifetime = Duration.between(issuedAt, expiresAt).dividedBy(2);
+        Duration skew = refreshSkew.compareTo(halfLifetime) > 0 ? halfLifetime : refreshSkew;
+        Duration untilExpiry = Duration.between(now, expiresAt);
+
+        return new Token("Bearer " + accessToken.getTokenValue(),
+                deadline(nowNanos, untilExpiry.minus(skew)), deadline(nowNanos, untilExpiry), expiresAt);
+    }
+
+    /**
+     * Caps the offset at half the {@code nanoTime} range, so {@code now - deadline} never overflows for tokens
+     * without an expiry.
+     */
+    private static long deadline(long nowNanos, Duration offset) {
+        long maxNanos = Long.MAX_VALUE / 2;
+        long nanos = offset.compareTo(Duration.ofNanos(maxNanos)) > 0 ? maxNanos : offset.toNanos();
+        return nowNanos + nanos;
+    }
+
+    private static Token await(CompletableFuture<Token> fetch) {
+        try {
+            return fetch.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    private record Token(String header, long refreshDeadline, long expiryDeadline, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,224 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerOperation;
+import guru.springframework.spring6resttemplate.client.CircuitBreakerOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One count-based circuit breaker per {@link BeerOperation}. A breaker opens when the failure rate or the slow-call
+ * rate of its sliding window crosses the threshold, rejects calls with {@link CircuitBreakerOpenException} for
+ * {@code waitDurationInOpenState}, then lets a few trial calls through before closing again.
+ * <p>
+ * Settings are read from {@code rest.template.circuitBreaker.<name>} and can be overridden per operation with
+ * {@code rest.template.circuitBreaker.<operation>.<name>}.
+ */
+@Component
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+    static final String PREFIX = "rest.template.circuitBreaker.";
+
+    private final boolean enabled;
+    private final Map<BeerOperation, CircuitBreaker> breakers = new EnumMap<>(BeerOperation.class);
+    private final Map<BeerOperation, Counter> rejections = new EnumMap<>(BeerOperation.class);
+
+    @Autowired
+    public CircuitBreakerInterceptor(Environment environment, MeterRegistry meterRegistry) {
+        this(environment, meterRegistry, Clock.systemUTC());
+    }
+
+    CircuitBreakerInterceptor(Environment environment, MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = environment.getProperty(PREFIX + "enabled", Boolean.class, true);
+
+        for (BeerOperation operation : BeerOperation.values()) {
+            CircuitBreaker breaker = new CircuitBreaker(Settings.of(environment, operation), clock);
+            breakers.put(operation, breaker);
+            rejections.put(operation, meterRegistry.counter("beer.client.circuit.rejected", "operation", operation.key()));
+            Gauge.builder("beer.client.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("0 = closed, 1 = open, 2 = half-open")
+                    .tag("operation", operation.key())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!enabled) {
+            return execution.execute(request, body);
+        }
+
+        BeerOperation operation = BeerOperation.from(request);
+        CircuitBreaker breaker = breakers.get(operation);
+        if (!breaker.tryAcquire()) {
+            rejections.get(operation).increment();
+            throw new CircuitBreakerOpenException(operation);
+        }
+
+        long start = System.nanoTime();
+        boolean failure = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            failure = isFailure(response.getStatusCode());
+            return response;
+        } finally {
+            breaker.record(failure, System.nanoTime() - start);
+        }
+    }
+
+    public CircuitBreaker.State state(BeerOperation operation) {
+        return breakers.get(operation).state();
+    }
+
+    static boolean isFailure(HttpStatusCode status) {
+        return status.is5xxServerError() || status.value() == 429;
+    }
+
+    record Settings(int failureRateThreshold,
+                    int slowCallRateThreshold,
+                    Duration slowCallDuration,
+                    int slidingWindowSize,
+                    int minimumNumberOfCalls,
+                    Duration waitDurationInOpenState,
+                    int permittedCallsInHalfOpenState) {
+
+        static Settings of(Environment environment, BeerOperation operation) {
+            return new Settings(
+                    intSetting(environment, operation, "failureRateThreshold", 50),
+                    intSetting(environment, operation, "slowCallRateThreshold", 80),
+                    durationSetting(environment, operation, "slowCallDuration", "2s"),
+                    intSetting(environment, operation, "slidingWindowSize", 50),
+                    intSetting(environment, operation, "minimumNumberOfCalls", 20),
+                    durationSetting(environment, operation, "waitDurationInOpenState", "10s"),
+                    intSetting(environment, operation, "permittedCallsInHalfOpenState", 5));
+        }
+
+        private static int intSetting(Environment environment, BeerOperation operation, String name, int defaultValue) {
+            int value = environment.getProperty(PREFIX + name, Integer.class, defaultValue);
+            return environment.getProperty(PREFIX + operation.key() + "." + name, Integer.class, value);
+        }
+
+        private static Duration durationSetting(Environment environment, BeerOperation operation, String name, String defaultValue) {
+            String value = environment.getProperty(PREFIX + name, defaultValue);
+            return DurationStyle.detectAndParse(environment.getProperty(PREFIX + operation.key() + "." + name, value));
+        }
+    }
+
+    /**
+     * State machine of a single breaker. Calls are cheap compared to the HTTP exchange they guard, so a monitor is
+     * used rather than lock-free bookkeeping.
+     */
+    public static class CircuitBreaker {
+
+        public enum State {
+            CLOSED, OPEN, HALF_OPEN
+        }
+
+        private static final byte FAILURE = 1;
+        private static final byte SLOW = 2;
+
+        private final Settings settings;
+        private final Clock clock;
+        private final long slowCallNanos;
+        private final byte[] window;
+
+        private State state = State.CLOSED;
+        private int next;
+        private int recorded;
+        private int failures;
+        private int slowCalls;
+        private Instant openedAt;
+        private int trialPermits;
+
+        CircuitBreaker(Settings settings, Clock clock) {
+            this.settings = settings;
+            this.clock = clock;
+            this.slowCallNanos = settings.slowCallDuration().toNanos();
+            this.window = new byte[settings.slidingWindowSize()];
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == State.OPEN) {
+                if (clock.instant().isBefore(openedAt.plus(settings.waitDurationInOpenState()))) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialPermits == 0) {
+                    return false;
+                }
+                trialPermits--;
+            }
+            return true;
+        }
+
+        synchronized void record(boolean failure, long durationNanos) {
+            if (state == State.OPEN) {
+                return;
+            }
+
+            byte outcome = (byte) ((failure ? FAILURE : 0) | (durationNanos > slowCallNanos ? SLOW : 0));
+            if (recorded == window.length) {
+                forget(window[next]);
+            } else {
+                recorded++;
+            }
+            window[next] = outcome;
+            next = (next + 1) % window.length;
+            failures += outcome & FAILURE;
+            slowCalls += (outcome & SLOW) >> 1;
+
+            if (state == State.HALF_OPEN) {
+                if (recorded >= settings.permittedCallsInHalfOpenState()) {
+                    transitionTo(thresholdsExceeded() ? State.OPEN : State.CLOSED);
+                }
+            } else if (recorded >= settings.minimumNumberOfCalls() && thresholdsExceeded()) {
+                transitionTo(State.OPEN);
+            }
+        }
+
+        private boolean thresholdsExceeded() {
+            return failures * 100 >= settings.failureRateThreshold() * recorded
+                    || slowCalls * 100 >= settings.slowCallRateThreshold() * recorded;
+        }
+
+        private void forget(byte outcome) {
+            failures -= outcome & FAILURE;
+            slowCalls -= (outcome & SLOW) >> 1;
+        }
+
+        private void transitionTo(State newState) {
+            state = newState;
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+            if (newState == State.OPEN) {
+                openedAt = clock.instant();
+            } else if (newState == State.HALF_OPEN) {
+                trialPermits = settings.permittedCallsInHalfOpenState();
+            }
+        }
+    }
+}
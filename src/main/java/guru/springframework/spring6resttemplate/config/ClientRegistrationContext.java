@@ -0,0 +1,70 @@
+package guru.springframework.spring6resttemplate.config;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Selects the OAuth client registration that {@link OAuthClientInterceptor} signs requests with. A request attribute
+ * named {@link #ATTRIBUTE} takes precedence; otherwise the registration bound to the calling thread is used, and
+ * without either the default {@code springauth} registration.
+ * <pre>
+ * BeerDTO beer = ClientRegistrationContext.callAs("tenant-42", () -> beerClient.getBeerById(id)).orElseThrow();
+ * </pre>
+ * The binding is per thread, so work handed to another executor only keeps it when wrapped with
+ * {@link #propagating(Executor)}.
+ */
+public final class ClientRegistrationContext {
+
+    public static final String ATTRIBUTE = ClientRegistrationContext.class.getName() + ".registrationId";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientRegistrationContext() {
+    }
+
+    public static <T> T callAs(String registrationId, Supplier<T> call) {
+        String previous = CURRENT.get();
+        CURRENT.set(registrationId);
+        try {
+            return call.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runAs(String registrationId, Runnable task) {
+        callAs(registrationId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the registration bound to the calling thread, or null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return an executor that runs each task with the registration bound to the thread that submitted it
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> {
+            String registrationId = CURRENT.get();
+            if (registrationId == null) {
+                executor.execute(task);
+            } else {
+                executor.execute(() -> runAs(registrationId, task));
+            }
+        };
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerOperation;
+import guru.springframework.spring6resttemplate.client.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in flight per {@link BeerOperation} with an AIMD limit driven by latency: the limit grows by
+ * one while requests come back within {@code rttTolerance} times the minimum observed round trip, and shrinks by
+ * {@code backoffRatio} on errors or when latency rises above that. Requests over the limit fail immediately with
+ * {@link ConcurrencyLimitExceededException} instead of queueing on the connection pool.
+ * <p>
+ * Off unless {@code rest.template.limiter.enabled} is set: callers that fan out, like {@code AsyncBeerClientImpl}
+ * with its {@code rest.template.async.maxInFlight} of 256, would otherwise see requests shed well below their own
+ * bound. When turning it on, keep {@code initialLimit} and {@code minLimit} at or above the fan-out callers allow.
+ * <p>
+ * Settings are read from {@code rest.template.limiter.<name>} and can be overridden per operation with
+ * {@code rest.template.limiter.<operation>.<name>}.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    static final String PREFIX = "rest.template.limiter.";
+
+    private final boolean enabled;
+    private final Map<BeerOperation, AdaptiveLimit> limits = new EnumMap<>(BeerOperation.class);
+    private final Map<BeerOperation, Counter> rejections = new EnumMap<>(BeerOperation.class);
+
+    @Autowired
+    public ConcurrencyLimitInterceptor(Environment environment, MeterRegistry meterRegistry) {
+        this.enabled = environment.getProperty(PREFIX + "enabled", Boolean.class, false);
+
+        for (BeerOperation operation : BeerOperation.values()) {
+            AdaptiveLimit limit = new AdaptiveLimit(
+                    setting(environment, operation, "initialLimit", 50.0),
+                    setting(environment, operation, "minLimit", 20.0),
+                    setting(environment, operation, "maxLimit", 200.0),
+                    setting(environment, operation, "backoffRatio", 0.9),
+                    setting(environment, operation, "rttTolerance", 2.0));
+            limits.put(operation, limit);
+            rejections.put(operation, meterRegistry.counter("beer.client.limiter.rejected", "operation", operation.key()));
+            Gauge.builder("beer.client.limiter.limit", limit, AdaptiveLimit::limit)
+                    .tag("operation", operation.key())
+                    .register(meterRegistry);
+            Gauge.builder("beer.client.limiter.inflight", limit, AdaptiveLimit::inFlight)
+                    .tag("operation", operation.key())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!enabled) {
+            return execution.execute(request, body);
+        }
+
+        BeerOperation operation = BeerOperation.from(request);
+        AdaptiveLimit limit = limits.get(operation);
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            rejections.get(operation).increment();
+            throw new ConcurrencyLimitExceededException(operation, limit.limit());
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            dropped = CircuitBreakerInterceptor.isFailure(response.getStatusCode());
+            return response;
+        } finally {
+            limit.release(inFlight, System.nanoTime() - start, dropped);
+        }
+    }
+
+    public int limit(BeerOperation operation) {
+        return limits.get(operation).limit();
+    }
+
+    private static double setting(Environment environment, BeerOperation operation, String name, double defaultValue) {
+        double value = environment.getProperty(PREFIX + name, Double.class, defaultValue);
+        return environment.getProperty(PREFIX + operation.key() + "." + name, Double.class, value);
+    }
+
+    static class AdaptiveLimit {
+        private static final int MIN_RTT_WINDOW = 1000;
+
+        private final double minLimit;
+        private final double maxLimit;
+        private final double backoffRatio;
+        private final double rttTolerance;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit;
+        private long minRttNanos = Long.MAX_VALUE;
+        private int samples;
+
+        AdaptiveLimit(double initialLimit, double minLimit, double maxLimit, double backoffRatio, double rttTolerance) {
+            this.limit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.backoffRatio = backoffRatio;
+            this.rttTolerance = rttTolerance;
+        }
+
+        int limit() {
+            return (int) limit;
+        }
+
+        int inFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * @return the number of requests in flight including this one, or -1 if the limit has been reached
+         */
+        int tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    return -1;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+            }
+        }
+
+        synchronized void release(int inFlightAtStart, long rttNanos, boolean dropped) {
+            inFlight.decrementAndGet();
+
+            // the window restarts periodically so the baseline can rise again after a lasting change in the service
+            if (samples++ % MIN_RTT_WINDOW == 0 || rttNanos < minRttNanos) {
+                minRttNanos = rttNanos;
+            }
+
+            if (dropped || rttNanos > minRttNanos * rttTolerance) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightAtStart * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+}
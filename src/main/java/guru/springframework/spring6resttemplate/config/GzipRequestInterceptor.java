@@ -0,0 +1,49 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips request bodies of at least {@code requestMinSize}, e.g. large bulk writes. Off by default because the
+ * server has to accept {@code Content-Encoding: gzip} on requests.
+ */
+@Component
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final boolean enabled;
+    private final long minSize;
+
+    @Autowired
+    public GzipRequestInterceptor(@Value("${rest.template.compression.requestBodies:false}") boolean enabled,
+                                  @Value("${rest.template.compression.requestMinSize:8KB}") DataSize minSize) {
+        this.enabled = enabled;
+        this.minSize = minSize.toBytes();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (!enabled || body.length < minSize || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return execution.execute(request, body);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.setContentLength(compressed.size());
+        return execution.execute(request, compressed.toByteArray());
+    }
+}
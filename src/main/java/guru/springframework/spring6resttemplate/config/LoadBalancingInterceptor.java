@@ -0,0 +1,359 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads requests over the beer-service replicas listed in {@code rest.template.rootUrls}. Each request goes to
+ * the better of two randomly picked replicas, scored by a latency EWMA weighted by the requests in flight. While a
+ * replica gets no requests its EWMA decays over {@code decayTime}, so a replica that was slow gets tried again later.
+ * Change feed long polls are held open by the server on purpose, so they count towards failures but not towards the
+ * EWMA or the requests in flight.
+ * <p>
+ * A replica whose failure rate over its last {@code slidingWindowSize} calls reaches {@code failureRateThreshold} is
+ * ejected for {@code ejectionTime}, doubled on every consecutive ejection. Afterwards a single probe request decides
+ * whether it comes back; only the request that took the probe permit settles it, and requests that were already in
+ * flight when the replica was ejected are left out of its failure window. If every replica is ejected, the one due
+ * back first is used anyway.
+ * <p>
+ * The replica is picked once per call. {@link RetryInterceptor} runs after this interceptor, so its retries and hedges
+ * go to the same replica as the first attempt; only the next call can move to another one. It reports every attempt
+ * back, so each one counts towards the failure window and the EWMA on its own, and neither backoff sleeps nor token
+ * fetches count as latency. Without it in the chain, the call is recorded as a single attempt.
+ * <p>
+ * Requests are built against {@code rest.template.rootUrl}; only their scheme and authority are rewritten. The
+ * connection manager pools per route, so every replica keeps its own connections. With no {@code rootUrls}
+ * configured, requests pass through unchanged.
+ */
+@Component
+public class LoadBalancingInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final int MAX_EJECTION_DOUBLINGS = 4;
+    private static final double EWMA_WEIGHT = 0.3;
+    private static final String ATTEMPTS_ATTRIBUTE = LoadBalancingInterceptor.class.getName() + ".attempts";
+
+    private final List<Replica> replicas;
+
+    @Autowired
+    public LoadBalancingInterceptor(@Value("${rest.template.rootUrls:}") List<String> rootUrls,
+                                    @Value("${rest.template.loadBalancer.decayTime:10s}") Duration decayTime,
+                                    @Value("${rest.template.loadBalancer.failureRateThreshold:50}") int failureRateThreshold,
+                                    @Value("${rest.template.loadBalancer.minimumNumberOfCalls:10}") int minimumNumberOfCalls,
+                                    @Value("${rest.template.loadBalancer.slidingWindowSize:20}") int slidingWindowSize,
+                                    @Value("${rest.template.loadBalancer.ejectionTime:30s}") Duration ejectionTime,
+                                    MeterRegistry meterRegistry) {
+        this(rootUrls, decayTime, failureRateThreshold, minimumNumberOfCalls, slidingWindowSize, ejectionTime,
+                meterRegistry, Clock.systemUTC());
+    }
+
+    LoadBalancingInterceptor(List<String> rootUrls, Duration decayTime, int failureRateThreshold, int minimumNumberOfCalls,
+                             int slidingWindowSize, Duration ejectionTime, MeterRegistry meterRegistry, Clock clock) {
+        this.replicas = rootUrls.stream()
+                .filter(StringUtils::hasText)
+                .map(rootUrl -> new Replica(URI.create(rootUrl.trim()), decayTime.toNanos(), failureRateThreshold,
+                        minimumNumberOfCalls, slidingWindowSize, ejectionTime, meterRegistry, clock))
+                .toList();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (replicas.isEmpty()) {
+            return execution.execute(request, body);
+        }
+
+        Permit permit = choose();
+        Replica replica = permit.replica();
+        URI uri = replica.resolve(request.getURI());
+        replica.requests.increment();
+
+        boolean longPoll = BeerOperation.from(request) == BeerOperation.POLL_CHANGES;
+        if (!longPoll) {
+            replica.inFlight.incrementAndGet();
+        }
+        Attempts attempts = new Attempts(permit, longPoll);
+        request.getAttributes().put(ATTEMPTS_ATTRIBUTE, attempts);
+        long start = System.nanoTime();
+        boolean failure = true;
+        try {
+            ClientHttpResponse response = execution.execute(new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+            }, body);
+            failure = response.getStatusCode().is5xxServerError();
+            return response;
+        } finally {
+            if (!longPoll) {
+                replica.inFlight.decrementAndGet();
+            }
+            attempts.complete(failure, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the attempts of the call this request belongs to, or a no-op when no replica was picked for it
+     */
+    static Attempts attemptsOf(HttpRequest request) {
+        return request.getAttributes().get(ATTEMPTS_ATTRIBUTE) instanceof Attempts attempts ? attempts : Attempts.UNTRACKED;
+    }
+
+    /**
+     * @return whether the replica with this root URL is currently ejected
+     */
+    public boolean isEjected(String rootUrl) {
+        return replicas.stream()
+                .filter(replica -> replica.rootUri.equals(URI.create(rootUrl)))
+                .anyMatch(Replica::isEjected);
+    }
+
+    private Permit choose() {
+        int size = replicas.size();
+        if (size == 1) {
+            Replica only = replicas.get(0);
+            Permit permit = only.tryAcquire();
+            return permit != null ? permit : only.forceAcquire();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Replica a = replicas.get(first);
+        Replica b = replicas.get(second);
+        Replica preferred = a.score() <= b.score() ? a : b;
+        Replica other = preferred == a ? b : a;
+        Permit permit = preferred.tryAcquire();
+        if (permit == null) {
+            permit = other.tryAcquire();
+        }
+        if (permit != null) {
+            return permit;
+        }
+
+        // both picks are ejected: fall back to any available replica, then to the one due back first
+        for (Replica replica : replicas) {
+            permit = replica.tryAcquire();
+            if (permit != null) {
+                return permit;
+            }
+        }
+        Replica soonest = replicas.get(0);
+        for (Replica replica : replicas) {
+            if (replica.ejectedUntil().isBefore(soonest.ejectedUntil())) {
+                soonest = replica;
+            }
+        }
+        return soonest.forceAcquire();
+    }
+
+    /**
+     * Ties a request to the replica it was sent to and to that replica's ejection epoch when it started.
+     */
+    record Permit(Replica replica, int epoch, boolean probe) {
+    }
+
+    /**
+     * Records the attempts of one call against its replica. The probe is settled by the first attempt; later ones
+     * count like any other request, or not at all once that attempt got the replica ejected.
+     */
+    static final class Attempts {
+        static final Attempts UNTRACKED = new Attempts(null, true);
+
+        private final boolean longPoll;
+        private Permit permit;
+        private int recorded;
+
+        private Attempts(Permit permit, boolean longPoll) {
+            this.permit = permit;
+            this.longPoll = longPoll;
+        }
+
+        /**
+         * @param nanos the attempt's latency; ignored for change feed polls
+         */
+        synchronized void record(boolean failure, long nanos) {
+            if (permit == null) {
+                return;
+            }
+            recorded++;
+            permit.replica().record(permit, failure, longPoll ? -1 : nanos);
+            permit = new Permit(permit.replica(), permit.epoch(), false);
+        }
+
+        private synchronized void complete(boolean failure, long nanos) {
+            if (recorded == 0) {
+                record(failure, nanos);
+            }
+        }
+    }
+
+    static class Replica {
+        private final URI rootUri;
+        private final long decayNanos;
+        private final int failureRateThreshold;
+        private final int minimumNumberOfCalls;
+        private final Duration ejectionTime;
+        private final Clock clock;
+        private final boolean[] window;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter requests;
+        private final Counter ejections;
+
+        private double ewmaNanos;
+        private long lastSampleNanos = System.nanoTime();
+        private int next;
+        private int recorded;
+        private int failures;
+        private int consecutiveEjections;
+        private Instant ejectedUntil = Instant.MIN;
+        private boolean probing;
+        private boolean probeInFlight;
+        private int epoch;
+
+        Replica(URI rootUri, long decayNanos, int failureRateThreshold, int minimumNumberOfCalls, int slidingWindowSize,
+                Duration ejectionTime, MeterRegistry meterRegistry, Clock clock) {
+            this.rootUri = rootUri;
+            this.decayNanos = decayNanos;
+            this.failureRateThreshold = failureRateThreshold;
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            this.ejectionTime = ejectionTime;
+            this.clock = clock;
+            this.window = new boolean[slidingWindowSize];
+
+            String host = rootUri.getAuthority();
+            this.requests = meterRegistry.counter("beer.client.loadbalancer.requests", "host", host);
+            this.ejections = meterRegistry.counter("beer.client.loadbalancer.ejections", "host", host);
+            Gauge.builder("beer.client.loadbalancer.latency", this, replica -> replica.latencyNanos() / 1_000_000.0)
+                    .baseUnit("milliseconds")
+                    .tag("host", host)
+                    .register(meterRegistry);
+        }
+
+        URI resolve(URI uri) {
+            String rawQuery = uri.getRawQuery();
+            return URI.create(rootUri.getScheme() + "://" + rootUri.getRawAuthority() + uri.getRawPath()
+                    + (rawQuery == null ? "" : "?" + rawQuery));
+        }
+
+        synchronized boolean isEjected() {
+            return clock.instant().isBefore(ejectedUntil);
+        }
+
+        synchronized Instant ejectedUntil() {
+            return ejectedUntil;
+        }
+
+        /**
+         * @return null while ejected or while its probe is out; the probe permit for the first request to a replica
+         * coming back from ejection
+         */
+        synchronized Permit tryAcquire() {
+            if (isEjected()) {
+                return null;
+            }
+            if (probing) {
+                if (probeInFlight) {
+                    return null;
+                }
+                probeInFlight = true;
+                return new Permit(this, epoch, true);
+            }
+            return new Permit(this, epoch, false);
+        }
+
+        /**
+         * @return a permit for a request sent while the replica is ejected because nothing else is available
+         */
+        synchronized Permit forceAcquire() {
+            return new Permit(this, epoch, false);
+        }
+
+        /**
+         * Latency EWMA, decayed towards zero for the time without samples, times the requests in flight plus one.
+         */
+        synchronized double score() {
+            return latencyNanos() * (inFlight.get() + 1);
+        }
+
+        synchronized double latencyNanos() {
+            long idle = System.nanoTime() - lastSampleNanos;
+            return ewmaNanos * Math.exp(-(double) idle / decayNanos);
+        }
+
+        /**
+         * @param sampleNanos the request latency, or a negative value to leave the EWMA alone
+         */
+        synchronized void record(Permit permit, boolean failure, long sampleNanos) {
+            if (sampleNanos >= 0) {
+                double current = latencyNanos();
+                ewmaNanos = ewmaNanos == 0 ? sampleNanos : current + EWMA_WEIGHT * (sampleNanos - current);
+                lastSampleNanos = System.nanoTime();
+            }
+
+            if (permit.probe()) {
+                probing = false;
+                probeInFlight = false;
+                if (failure) {
+                    eject();
+                } else {
+                    consecutiveEjections = 0;
+                }
+                return;
+            }
+            // sent before the last ejection, or while ejected: the ejection already accounts for it
+            if (permit.epoch() != epoch || probing) {
+                return;
+            }
+
+            if (recorded == window.length) {
+                failures -= window[next] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            window[next] = failure;
+            next = (next + 1) % window.length;
+            failures += failure ? 1 : 0;
+
+            if (recorded >= minimumNumberOfCalls && failures * 100 >= failureRateThreshold * recorded) {
+                eject();
+            }
+        }
+
+        private void eject() {
+            long factor = 1L << Math.min(consecutiveEjections, MAX_EJECTION_DOUBLINGS);
+            ejectedUntil = clock.instant().plus(ejectionTime.multipliedBy(factor));
+            consecutiveEjections++;
+            epoch++;
+            probing = true;
+            probeInFlight = false;
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            ejections.increment();
+        }
+    }
+}
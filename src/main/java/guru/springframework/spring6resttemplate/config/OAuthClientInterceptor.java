@@ -1,5 +1,14 @@
 package guru.springframework.spring6resttemplate.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
@@ -10,48 +19,144 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Objects.isNull;
 
+/**
+ * Signs requests with a client-credentials token of the registration chosen by {@link ClientRegistrationContext}.
+ * Each registration gets its own {@link CachedBearerToken}, so a tenant with a slow token endpoint only holds up its
+ * own requests. At most {@code maxRegistrations} of them are kept, and those unused for {@code registrationIdleTimeout}
+ * are dropped.
+ */
 @Component
 public class OAuthClientInterceptor implements ClientHttpRequestInterceptor {
-    private final OAuth2AuthorizedClientManager manager;
-    private final Authentication principal;
-    private final ClientRegistration clientRegistration;
+    static final String DEFAULT_REGISTRATION = "springauth";
 
-    public OAuthClientInterceptor(OAuth2AuthorizedClientManager manager, ClientRegistrationRepository clientRegistrationRepository) {
+    private final OAuth2AuthorizedClientManager manager;
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final OAuth2AuthorizedClientService authorizedClientService;
+    private final Duration tokenRefreshSkew;
+    private final SimpleAsyncTaskExecutor refreshExecutor;
+    private final Cache<String, CachedBearerToken> bearerTokens;
+    private final Timer tokenTimer;
+    private final Timer executionTimer;
+    private final Counter refreshFailures;
+
+    @Autowired
+    public OAuthClientInterceptor(OAuth2AuthorizedClientManager manager,
+                                  ClientRegistrationRepository clientRegistrationRepository,
+                                  OAuth2AuthorizedClientService authorizedClientService,
+                                  @Value("${rest.template.tokenRefreshSkew:60s}") Duration tokenRefreshSkew,
+                                  @Value("${rest.template.oauth.maxRegistrations:1000}") int maxRegistrations,
+                                  @Value("${rest.template.oauth.registrationIdleTimeout:1h}") Duration registrationIdleTimeout,
+                                  MeterRegistry meterRegistry) {
         this.manager = manager;
-        this.principal = createPrincipal();
-        this.clientRegistration = clientRegistrationRepository.findByRegistrationId("springauth");
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.authorizedClientService = authorizedClientService;
+        this.tokenRefreshSkew = tokenRefreshSkew;
+        this.tokenTimer = Timer.builder("beer.client.oauth.token")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("beer.client.oauth.execution")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.refreshFailures = meterRegistry.counter("beer.client.oauth.refresh.failures");
+        this.refreshExecutor = new SimpleAsyncTaskExecutor("oauth-token-refresh-");
+        this.refreshExecutor.setDaemon(true);
+        this.bearerTokens = Caffeine.newBuilder()
+                .maximumSize(maxRegistrations)
+                .expireAfterAccess(registrationIdleTimeout)
+                .build();
+        Gauge.builder("beer.client.oauth.registrations", bearerTokens, Cache::estimatedSize)
+                .register(meterRegistry);
+
+        // fail at startup rather than on the first request when the default registration is missing
+        bearerToken(DEFAULT_REGISTRATION);
     }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
-        OAuth2AuthorizeRequest oAuth2AuthorizeRequest = OAuth2AuthorizeRequest
-                .withClientRegistrationId(clientRegistration.getRegistrationId())
-                .principal(createPrincipal())
+        long start = System.nanoTime();
+        String bearerHeader = bearerToken(registrationId(request)).bearerHeader();
+        long authorized = System.nanoTime();
+        tokenTimer.record(authorized - start, TimeUnit.NANOSECONDS);
+
+        request.getHeaders().add(HttpHeaders.AUTHORIZATION, bearerHeader);
+
+        try {
+            return execution.execute(request, body);
+        } finally {
+            executionTimer.record(System.nanoTime() - authorized, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Drops the token rejected by the server (unless another caller already replaced it) and re-signs the request
+     * with a fresh one. The authorized client stored by the manager is removed as well; the client-credentials
+     * provider would otherwise hand back the same unexpired token.
+     */
+    public void reauthorize(HttpRequest request) {
+        String registrationId = registrationId(request);
+        CachedBearerToken bearerToken = bearerToken(registrationId);
+        if (bearerToken.invalidate(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION))) {
+            authorizedClientService.removeAuthorizedClient(registrationId,
+                    clientRegistrationRepository.findByRegistrationId(registrationId).getClientId());
+        }
+        request.getHeaders().set(HttpHeaders.AUTHORIZATION, bearerToken.bearerHeader());
+    }
+
+    /**
+     * Resolves the registration once and records it on the request, so a later {@link #reauthorize} uses the same
+     * one even from another thread.
+     */
+    private static String registrationId(HttpRequest request) {
+        return (String) request.getAttributes().computeIfAbsent(ClientRegistrationContext.ATTRIBUTE, name -> {
+            String current = ClientRegistrationContext.current();
+            return current != null ? current : DEFAULT_REGISTRATION;
+        });
+    }
+
+    private CachedBearerToken bearerToken(String registrationId) {
+        return bearerTokens.get(registrationId, this::createBearerToken);
+    }
+
+    private CachedBearerToken createBearerToken(String registrationId) {
+        ClientRegistration clientRegistration = clientRegistrationRepository.findByRegistrationId(registrationId);
+        if (clientRegistration == null) {
+            throw new IllegalArgumentException("Unknown OAuth client registration: " + registrationId);
+        }
+
+        OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest
+                .withClientRegistrationId(registrationId)
+                .principal(createPrincipal(clientRegistration))
                 .build();
+        return new CachedBearerToken(registrationId, () -> authorize(authorizeRequest), tokenRefreshSkew, refreshExecutor,
+                refreshFailures, Clock.systemUTC(), System::nanoTime);
+    }
 
-        OAuth2AuthorizedClient client = manager.authorize(oAuth2AuthorizeRequest);
+    private OAuth2AccessToken authorize(OAuth2AuthorizeRequest authorizeRequest) {
+        OAuth2AuthorizedClient client = manager.authorize(authorizeRequest);
 
         if (isNull(client)) {
             throw new IllegalStateException("Missing credentials");
         }
 
-        request.getHeaders().add(HttpHeaders.AUTHORIZATION,
-                "Bearer " + client.getAccessToken().getTokenValue());
-
-        return execution.execute(request, body);
+        return client.getAccessToken();
     }
 
-    private Authentication createPrincipal() {
+    private static Authentication createPrincipal(ClientRegistration clientRegistration) {
         return new Authentication() {
             @Override
             public Collection<? extends GrantedAuthority> getAuthorities() {
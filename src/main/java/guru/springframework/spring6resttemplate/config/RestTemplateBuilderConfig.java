@@ -1,10 +1,26 @@
 package guru.springframework.spring6resttemplate.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
@@ -12,17 +28,47 @@ import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.lang.reflect.Type;
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateBuilderConfig {
 
     @Value("${rest.template.rootUrl}")
     String rootUrl;
 
+    @Value("${rest.template.maxTotalConnections:100}")
+    int maxTotalConnections;
+
+    @Value("${rest.template.maxConnectionsPerRoute:50}")
+    int maxConnectionsPerRoute;
+
+    @Value("${rest.template.keepAlive:30s}")
+    Duration keepAlive;
+
+    @Value("${rest.template.idleEviction:30s}")
+    Duration idleEviction;
+
+    @Value("${rest.template.connectTimeout:2s}")
+    Duration connectTimeout;
+
+    @Value("${rest.template.readTimeout:10s}")
+    Duration readTimeout;
+
+    @Value("${rest.template.tokenRefreshSkew:60s}")
+    Duration tokenRefreshSkew;
+
+    @Value("${rest.template.smile.enabled:true}")
+    boolean smileEnabled;
+
+    @Value("${rest.template.compression.enabled:true}")
+    boolean compressionEnabled;
+
     @Bean
     OAuth2AuthorizedClientManager auth2AuthorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
                                                                OAuth2AuthorizedClientService oAuth2AuthorizedClientService) {
         var authorizedClientProvider = OAuth2AuthorizedClientProviderBuilder.builder()
-                .clientCredentials()
+                .clientCredentials(clientCredentials -> clientCredentials.clockSkew(tokenRefreshSkew))
                 .build();
 
         var authorizedClientManager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
@@ -34,9 +80,93 @@ public class RestTemplateBuilderConfig {
     }
 
     @Bean
-    RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer, OAuthClientInterceptor oAuthClientInterceptor) {
-        return configurer.configure(new RestTemplateBuilder())
-                .additionalInterceptors(oAuthClientInterceptor)
+    PoolingHttpClientConnectionManager pooledConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotalConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    MeterBinder pooledConnectionMetrics(PoolingHttpClientConnectionManager pooledConnectionManager) {
+        return registry -> {
+            Gauge.builder("beer.client.pool.leased", pooledConnectionManager, pool -> pool.getTotalStats().getLeased())
+                    .register(registry);
+            Gauge.builder("beer.client.pool.idle", pooledConnectionManager, pool -> pool.getTotalStats().getAvailable())
+                    .register(registry);
+            Gauge.builder("beer.client.pool.pending", pooledConnectionManager, pool -> pool.getTotalStats().getPending())
+                    .register(registry);
+            Gauge.builder("beer.client.pool.max", pooledConnectionManager, pool -> pool.getTotalStats().getMax())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    HttpComponentsClientHttpRequestFactory pooledRequestFactory(PoolingHttpClientConnectionManager pooledConnectionManager) {
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(pooledConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction));
+
+        // with compression on, HttpClient sends Accept-Encoding and hands out a lazily inflating body stream
+        if (!compressionEnabled) {
+            httpClientBuilder.disableContentCompression();
+        }
+
+        return new HttpComponentsClientHttpRequestFactory(httpClientBuilder.build());
+    }
+
+    @Bean
+    RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer,
+                                            TrafficCaptureInterceptor trafficCaptureInterceptor,
+                                            CircuitBreakerInterceptor circuitBreakerInterceptor,
+                                            ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+                                            LoadBalancingInterceptor loadBalancingInterceptor,
+                                            GzipRequestInterceptor gzipRequestInterceptor,
+                                            OAuthClientInterceptor oAuthClientInterceptor,
+                                            RetryInterceptor retryInterceptor,
+                                            HttpComponentsClientHttpRequestFactory pooledRequestFactory,
+                                            Jackson2ObjectMapperBuilder jacksonObjectMapperBuilder) {
+        RestTemplateBuilder builder = configurer.configure(new RestTemplateBuilder())
+                .requestFactory(() -> pooledRequestFactory)
+                // capture first, so a record is the call as the client made it, before retries and replica choice
+                .additionalInterceptors(trafficCaptureInterceptor, circuitBreakerInterceptor, concurrencyLimitInterceptor,
+                        loadBalancingInterceptor, gzipRequestInterceptor, oAuthClientInterceptor, retryInterceptor)
                 .uriTemplateHandler(new DefaultUriBuilderFactory(rootUrl));
+
+        if (smileEnabled) {
+            // first in the list, so the Accept header asks for Smile ahead of JSON; servers without Smile answer JSON
+            var smileConverter = new ReadOnlySmileHttpMessageConverter(jacksonObjectMapperBuilder.factory(new SmileFactory()).build());
+            builder = builder.additionalCustomizers(restTemplate -> restTemplate.getMessageConverters().add(0, smileConverter));
+        }
+        return builder;
+    }
+
+    /**
+     * Request bodies stay JSON so writes work against any server; only responses are negotiated.
+     */
+    static class ReadOnlySmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+        ReadOnlySmileHttpMessageConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
     }
 }
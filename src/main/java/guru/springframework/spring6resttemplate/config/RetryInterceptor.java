@@ -0,0 +1,316 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries idempotent requests with exponential backoff and full jitter, hedges slow reads and re-signs a request
+ * once when the token is rejected. Every retry and hedge is paid for from a budget that only grows with first
+ * attempts, so a failing service sees at most {@code ratio} extra load.
+ * <p>
+ * Must be the last interceptor of the RestTemplate: repeated calls to {@code execution.execute} then go straight
+ * to the request factory instead of running earlier interceptors again. That is also why each attempt is reported
+ * to {@link LoadBalancingInterceptor} from here.
+ */
+@Component
+public class RetryInterceptor implements ClientHttpRequestInterceptor, DisposableBean {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.PUT, HttpMethod.DELETE);
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 502, 503, 504);
+
+    private final OAuthClientInterceptor oAuthClientInterceptor;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayNanos;
+
+    private final RetryBudget retryBudget;
+    private final LatencyWindow readLatencies = new LatencyWindow(1024);
+    private final ExecutorService hedgeExecutor;
+
+    private final Counter retries;
+    private final Counter throttled;
+    private final Counter hedges;
+    private final Counter reauthorizations;
+
+    @Autowired
+    public RetryInterceptor(OAuthClientInterceptor oAuthClientInterceptor,
+                            @Value("${rest.template.retry.maxAttempts:3}") int maxAttempts,
+                            @Value("${rest.template.retry.initialBackoff:50ms}") Duration initialBackoff,
+                            @Value("${rest.template.retry.maxBackoff:1s}") Duration maxBackoff,
+                            @Value("${rest.template.retry.budget.ratio:0.1}") double budgetRatio,
+                            @Value("${rest.template.retry.budget.maxTokens:10}") int budgetMaxTokens,
+                            @Value("${rest.template.retry.hedge.enabled:false}") boolean hedgeEnabled,
+                            @Value("${rest.template.retry.hedge.minDelay:10ms}") Duration hedgeMinDelay,
+                            MeterRegistry meterRegistry) {
+        this.oAuthClientInterceptor = oAuthClientInterceptor;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayNanos = hedgeMinDelay.toNanos();
+        this.retryBudget = new RetryBudget(budgetRatio, budgetMaxTokens);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-hedge-");
+        threadFactory.setDaemon(true);
+        this.hedgeExecutor = Executors.newCachedThreadPool(threadFactory);
+
+        this.retries = meterRegistry.counter("beer.client.retries");
+        this.throttled = meterRegistry.counter("beer.client.retries.throttled");
+        this.hedges = meterRegistry.counter("beer.client.hedges");
+        this.reauthorizations = meterRegistry.counter("beer.client.reauthorizations");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.getMethod());
+        boolean reauthorized = false;
+        retryBudget.deposit();
+
+        for (int attempt = 1; ; attempt++) {
+            ClientHttpResponse response;
+            try {
+                response = attempt(request, body, execution);
+            } catch (IOException ex) {
+                if (!idempotent || !mayRetry(attempt)) {
+                    throw ex;
+                }
+                backoff(attempt);
+                continue;
+            }
+
+            HttpStatusCode status = response.getStatusCode();
+            if (status.isSameCodeAs(HttpStatus.UNAUTHORIZED) && !reauthorized) {
+                reauthorized = true;
+                response.close();
+                reauthorizations.increment();
+                oAuthClientInterceptor.reauthorize(request);
+                attempt--;
+                continue;
+            }
+            if (!idempotent || !RETRYABLE_STATUSES.contains(status.value()) || !mayRetry(attempt)) {
+                return response;
+            }
+            response.close();
+            backoff(attempt);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    private ClientHttpResponse attempt(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        // change feed polls are slow by design; keep them out of the read latencies that set the hedge delay
+        if (request.getMethod() != HttpMethod.GET || BeerOperation.from(request) == BeerOperation.POLL_CHANGES) {
+            return execute(request, body, execution);
+        }
+
+        long hedgeDelay = readLatencies.p95();
+        if (!hedgeEnabled || hedgeDelay < 0) {
+            return timedRead(request, body, execution);
+        }
+        return hedgedRead(request, body, execution, Math.max(hedgeDelay, hedgeMinDelayNanos));
+    }
+
+    private ClientHttpResponse timedRead(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        long start = System.nanoTime();
+        ClientHttpResponse response = execute(request, body, execution);
+        readLatencies.record(System.nanoTime() - start);
+        return response;
+    }
+
+    /**
+     * Sends one attempt and reports its outcome and latency to the replica the load balancer picked for the call.
+     */
+    private static ClientHttpResponse execute(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        LoadBalancingInterceptor.Attempts attempts = LoadBalancingInterceptor.attemptsOf(request);
+        long start = System.nanoTime();
+        boolean failure = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            failure = response.getStatusCode().is5xxServerError();
+            return response;
+        } finally {
+            attempts.record(failure, System.nanoTime() - start);
+        }
+    }
+
+    private ClientHttpResponse hedgedRead(HttpRequest request, byte[] body, ClientHttpRequestExecution execution,
+                                          long hedgeDelayNanos) throws IOException {
+        CompletableFuture<ClientHttpResponse> primary = submitRead(request, body, execution);
+        try {
+            return primary.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (!retryBudget.tryWithdraw()) {
+                throttled.increment();
+                return await(primary);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } catch (ExecutionException ex) {
+            return await(primary);
+        }
+
+        hedges.increment();
+        CompletableFuture<ClientHttpResponse> hedge = submitRead(request, body, execution);
+
+        CompletableFuture<ClientHttpResponse> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<ClientHttpResponse> read : Arrays.asList(primary, hedge)) {
+            read.whenComplete((response, ex) -> {
+                if (ex != null) {
+                    if (failures.incrementAndGet() == 2) {
+                        first.completeExceptionally(ex);
+                    }
+                } else if (!first.complete(response)) {
+                    response.close();
+                }
+            });
+        }
+        return await(first);
+    }
+
+    private CompletableFuture<ClientHttpResponse> submitRead(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timedRead(request, body, execution);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, hedgeExecutor);
+    }
+
+    private boolean mayRetry(int attempt) {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            throttled.increment();
+            return false;
+        }
+        retries.increment();
+        return true;
+    }
+
+    private void backoff(int attempt) throws IOException {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    private static ClientHttpResponse await(CompletableFuture<ClientHttpResponse> response) throws IOException {
+        try {
+            return response.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Token bucket in thousandths of a token: first attempts deposit {@code ratio}, retries and hedges withdraw one.
+     */
+    static class RetryBudget {
+        private final long deposit;
+        private final long capacity;
+        private final AtomicLong balance;
+
+        RetryBudget(double ratio, int maxTokens) {
+            this.deposit = Math.round(ratio * 1000);
+            this.capacity = maxTokens * 1000L;
+            this.balance = new AtomicLong(capacity);
+        }
+
+        void deposit() {
+            balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+        }
+
+        boolean tryWithdraw() {
+            while (true) {
+                long current = balance.get();
+                if (current < 1000) {
+                    return false;
+                }
+                if (balance.compareAndSet(current, current - 1000)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recent read latencies in a fixed ring; the p95 is recomputed every 64 samples rather than on every read.
+     */
+    static class LatencyWindow {
+        private static final int MIN_SAMPLES = 64;
+
+        private final long[] samples;
+        private final AtomicLong recorded = new AtomicLong();
+        private volatile long p95 = -1;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        void record(long nanos) {
+            long index = recorded.getAndIncrement();
+            samples[(int) (index % samples.length)] = nanos;
+            if ((index + 1) % MIN_SAMPLES == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(index + 1, samples.length));
+                Arrays.sort(sorted);
+                p95 = sorted[(int) (sorted.length * 0.95)];
+            }
+        }
+
+        long p95() {
+            return p95;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package guru.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the exchanges of the beer client into an append-only, memory-mapped log that {@code BeerTrafficReplayer}
+ * plays back. A record holds the start time, the time until the caller closed the response, the response status
+ * and body size, and the method, path, query and body of the request. Headers, and with them the bearer token, are
+ * not recorded.
+ * <p>
+ * The log is mapped at {@code maxSize} up front and writers claim their slot with a single atomic add, so capturing
+ * costs one copy of the request body and no locking. Exchanges that no longer fit are counted as dropped. The file
+ * is replaced on startup and keeps its mapped size; {@link #read(Path)} stops at the first unwritten slot.
+ * Off by default.
+ */
+@Component
+public class TrafficCaptureInterceptor implements ClientHttpRequestInterceptor, DisposableBean {
+
+    static final long MAGIC = 0x4245455243415031L; // "BEERCAP1"
+
+    // length, start, duration, status, response bytes, method length, uri length, body length
+    private static final int FIXED_RECORD_SIZE = 4 + 8 + 8 + 2 + 8 + 1 + 4 + 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer log;
+    private final AtomicLong position = new AtomicLong(Long.BYTES);
+    private final long epochOffsetNanos;
+    private final Counter records;
+    private final Counter dropped;
+
+    @Autowired
+    public TrafficCaptureInterceptor(@Value("${rest.template.capture.enabled:false}") boolean enabled,
+                                     @Value("${rest.template.capture.file:beer-traffic.capture}") Path file,
+                                     @Value("${rest.template.capture.maxSize:256MB}") DataSize maxSize,
+                                     MeterRegistry meterRegistry) {
+        if (maxSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capture files are limited to 2GB, got " + maxSize);
+        }
+        this.epochOffsetNanos = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+        this.records = meterRegistry.counter("beer.client.capture.records");
+        this.dropped = meterRegistry.counter("beer.client.capture.dropped");
+
+        if (!enabled) {
+            this.channel = null;
+            this.log = null;
+            return;
+        }
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxSize.toBytes());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot map capture file " + file, ex);
+        }
+        log.putLong(0, MAGIC);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (log == null) {
+            return execution.execute(request, body);
+        }
+
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException ex) {
+            append(request, body, start, 0, 0);
+            throw ex;
+        }
+        return new CapturingResponse(response, request, body, start);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (log != null) {
+            log.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * @return the exchanges recorded in a capture file, in the order their responses were closed
+     */
+    public static List<CapturedExchange> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (log.remaining() < Long.BYTES || log.getLong() != MAGIC) {
+                throw new IOException(file + " is not a beer traffic capture");
+            }
+
+            List<CapturedExchange> exchanges = new ArrayList<>();
+            while (log.remaining() >= FIXED_RECORD_SIZE) {
+                int length = log.getInt();
+                if (length == 0) {
+                    break;
+                }
+                long startEpochNanos = log.getLong();
+                long durationNanos = log.getLong();
+                int status = log.getShort();
+                long responseBytes = log.getLong();
+                String method = new String(bytes(log, log.get()), StandardCharsets.US_ASCII);
+                String uri = new String(bytes(log, log.getInt()), StandardCharsets.UTF_8);
+                byte[] body = bytes(log, log.getInt());
+                exchanges.add(new CapturedExchange(startEpochNanos, durationNanos, HttpMethod.valueOf(method), uri, body,
+                        status, responseBytes));
+            }
+            return exchanges;
+        }
+    }
+
+    private void append(HttpRequest request, byte[] body, long startNanos, int status, long responseBytes) {
+        long durationNanos = System.nanoTime() - startNanos;
+        byte[] method = request.getMethod().name().getBytes(StandardCharsets.US_ASCII);
+        byte[] uri = pathAndQuery(request.getURI()).getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_RECORD_SIZE + method.length + uri.length + body.length;
+
+        long offset = position.getAndAdd(length);
+        if (offset + length > log.capacity()) {
+            dropped.increment();
+            return;
+        }
+
+        ByteBuffer record = log.slice((int) offset, length);
+        record.position(Integer.BYTES);
+        record.putLong(epochOffsetNanos + startNanos)
+                .putLong(durationNanos)
+                .putShort((short) status)
+                .putLong(responseBytes)
+                .put((byte) method.length).put(method)
+                .putInt(uri.length).put(uri)
+                .putInt(body.length).put(body);
+        // written last, so a record cut short by a crash reads as the end of the log
+        record.putInt(0, length);
+        records.increment();
+    }
+
+    private static String pathAndQuery(URI uri) {
+        String rawQuery = uri.getRawQuery();
+        return rawQuery == null ? uri.getRawPath() : uri.getRawPath() + "?" + rawQuery;
+    }
+
+    private static byte[] bytes(ByteBuffer log, int length) {
+        byte[] bytes = new byte[length];
+        log.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param uri the raw path and query, without scheme and host
+     * @param status the response status, or 0 if the exchange failed without one
+     * @param responseBytes the response body bytes the caller read
+     */
+    public record CapturedExchange(long startEpochNanos, long durationNanos, HttpMethod method, String uri, byte[] body,
+                                   int status, long responseBytes) {
+    }
+
+    /**
+     * Writes the record when the caller closes the response, so the duration and size cover reading the body.
+     */
+    private class CapturingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final HttpRequest request;
+        private final byte[] requestBody;
+        private final long start;
+        private CountingInputStream body;
+        private boolean closed;
+
+        CapturingResponse(ClientHttpResponse delegate, HttpRequest request, byte[] requestBody, long start) {
+            this.delegate = delegate;
+            this.request = request;
+            this.requestBody = requestBody;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            int status;
+            try {
+                status = delegate.getStatusCode().value();
+            } catch (IOException ex) {
+                status = 0;
+            }
+            delegate.close();
+            append(request, requestBody, start, status, body == null ? 0 : body.count);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        /**
+         * RestTemplate peeks at the first byte with mark/reset when it can, which would count that byte twice.
+         */
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryReactiveOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryReactiveClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.reactive.function.client.ServerOAuth2AuthorizedClientExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking counterpart of {@link RestTemplateBuilderConfig}. The application runs on the servlet stack, so the
+ * reactive OAuth2 client beans are not auto-configured; they are built here from the same {@code springauth}
+ * registration and the requests go out through reactor-netty.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Value("${rest.template.rootUrl}")
+    String rootUrl;
+
+    @Value("${rest.template.tokenRefreshSkew:60s}")
+    Duration tokenRefreshSkew;
+
+    @Bean
+    ReactiveOAuth2AuthorizedClientManager reactiveAuthorizedClientManager(ClientRegistrationRepository clientRegistrationRepository) {
+        var clientRegistrations = new InMemoryReactiveClientRegistrationRepository(
+                clientRegistrationRepository.findByRegistrationId("springauth"));
+
+        var authorizedClientManager = new AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager(
+                clientRegistrations,
+                new InMemoryReactiveOAuth2AuthorizedClientService(clientRegistrations)
+        );
+        authorizedClientManager.setAuthorizedClientProvider(ReactiveOAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials(clientCredentials -> clientCredentials.clockSkew(tokenRefreshSkew))
+                .build());
+        return authorizedClientManager;
+    }
+
+    @Bean
+    WebClient beerWebClient(WebClient.Builder webClientBuilder,
+                            ReactiveOAuth2AuthorizedClientManager reactiveAuthorizedClientManager) {
+        var oauth = new ServerOAuth2AuthorizedClientExchangeFilterFunction(reactiveAuthorizedClientManager);
+        oauth.setDefaultClientRegistrationId("springauth");
+
+        return webClientBuilder
+                .baseUrl(rootUrl)
+                .filter(oauth)
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package guru.springframework.spring6resttemplate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+public class BeerChangeBatch {
+    private String cursor;
+    private List<BeerDTO> beers;
+}
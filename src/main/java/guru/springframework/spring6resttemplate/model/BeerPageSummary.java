@@ -0,0 +1,13 @@
+package guru.springframework.spring6resttemplate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class BeerPageSummary {
+    private int number;
+    private int size;
+    private long totalElements;
+    private int numberOfElements;
+}
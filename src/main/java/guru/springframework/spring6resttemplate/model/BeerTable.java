@@ -0,0 +1,487 @@
+package guru.springframework.spring6resttemplate.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Column-per-field store for large numbers of beers. Ids are kept as two longs, numbers as primitives, prices as
+ * unscaled longs plus a scale, dates as epoch nanoseconds, styles as ordinals, and names and UPCs as indexes into
+ * a de-duplicated pool of UTF-8 bytes. Missing ids are tracked in a bitmap, so the nil UUID is an id like any other;
+ * other nulls are stored as sentinel values. Dates must fit epoch nanoseconds in a long, roughly the years 1677 to
+ * 2262; a beer with a price or date that does not fit is rejected and leaves the table unchanged.
+ * <p>
+ * Rows are read through {@link BeerDTO} views that fetch each field from the columns on access. Rows can be
+ * replaced but not removed, and names and UPCs are decoded into a new {@code String} on every read. Not thread-safe.
+ */
+public class BeerTable {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final byte NULL_BYTE = -1;
+    private static final BeerStyle[] STYLES = BeerStyle.values();
+
+    private int size;
+    private long[] idMostBits;
+    private long[] idLeastBits;
+    /** One bit per row, set when the row has no id. */
+    private long[] missingIds;
+    private int[] versions;
+    private int[] names;
+    private byte[] styles;
+    private int[] upcs;
+    private int[] quantities;
+    private long[] unscaledPrices;
+    private byte[] priceScales;
+    private long[] createdDates;
+    private long[] updateDates;
+
+    /** Open-addressing id index: row + 1 per slot, 0 for empty. */
+    private int[] slots;
+
+    private byte[] stringBytes = new byte[1024];
+    private int stringBytesUsed;
+    /** Start of string i at {@code stringOffsets[i]}, end at {@code stringOffsets[i + 1]}. */
+    private int[] stringOffsets = new int[65];
+    private int stringCount;
+    /** Open-addressing string index: string + 1 per slot, 0 for empty. */
+    private int[] stringSlots = new int[128];
+
+    public BeerTable() {
+        this(16);
+    }
+
+    public BeerTable(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 1));
+        slots = new int[Integer.highestOneBit(Math.max(initialCapacity, 8) * 2 - 1) << 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the beer, or overwrites its row if a beer with the same id is already stored.
+     *
+     * @return the row of the beer
+     */
+    public int put(BeerDTO beer) {
+        int row = beer.getId() != null ? rowOf(beer.getId()) : -1;
+        if (row < 0) {
+            if (size == idMostBits.length) {
+                allocate(size * 2);
+            }
+            row = size;
+            write(row, beer);
+            size++;
+            if (beer.getId() != null) {
+                index(row);
+            }
+        } else {
+            write(row, beer);
+        }
+        return row;
+    }
+
+    /**
+     * @return the row of the beer with this id, or -1
+     */
+    public int rowOf(UUID id) {
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        int mask = slots.length - 1;
+        for (int slot = hash(most, least) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            if (idMostBits[row] == most && idLeastBits[row] == least) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a read-only view of the row; it keeps reflecting later writes to the row
+     */
+    public BeerDTO get(int row) {
+        checkRow(row);
+        return new Row(row);
+    }
+
+    /**
+     * Visits every row with one reusable view, so a full scan allocates nothing. The view must not be retained
+     * beyond the callback; use {@link BeerDTO#toBuilder()} to keep a copy.
+     */
+    public void forEach(Consumer<BeerDTO> consumer) {
+        Row cursor = new Row(0);
+        for (int row = 0; row < size; row++) {
+            cursor.row = row;
+            consumer.accept(cursor);
+        }
+    }
+
+    public UUID id(int row) {
+        checkRow(row);
+        return hasId(row) ? new UUID(idMostBits[row], idLeastBits[row]) : null;
+    }
+
+    public Integer version(int row) {
+        checkRow(row);
+        return versions[row] == NULL_INT ? null : versions[row];
+    }
+
+    public String beerName(int row) {
+        checkRow(row);
+        return string(names[row]);
+    }
+
+    public BeerStyle beerStyle(int row) {
+        checkRow(row);
+        return styles[row] == NULL_BYTE ? null : STYLES[styles[row]];
+    }
+
+    public String upc(int row) {
+        checkRow(row);
+        return string(upcs[row]);
+    }
+
+    /**
+     * @return the quantity on hand, or 0 when unknown; avoids boxing in scans
+     */
+    public int quantityOnHandAsInt(int row) {
+        checkRow(row);
+        return quantities[row] == NULL_INT ? 0 : quantities[row];
+    }
+
+    public Integer quantityOnHand(int row) {
+        checkRow(row);
+        return quantities[row] == NULL_INT ? null : quantities[row];
+    }
+
+    public BigDecimal price(int row) {
+        checkRow(row);
+        return priceScales[row] == Byte.MIN_VALUE ? null : BigDecimal.valueOf(unscaledPrices[row], priceScales[row]);
+    }
+
+    public LocalDateTime createdDate(int row) {
+        checkRow(row);
+        return toDateTime(createdDates[row]);
+    }
+
+    public LocalDateTime updateDate(int row) {
+        checkRow(row);
+        return toDateTime(updateDates[row]);
+    }
+
+    private void write(int row, BeerDTO beer) {
+        // convert first, so a date or price that does not fit leaves the row untouched
+        long createdDate = toEpochNanos(beer.getCreatedDate());
+        long updateDate = toEpochNanos(beer.getUpdateDate());
+        writePrice(row, beer.getPrice());
+
+        UUID id = beer.getId();
+        idMostBits[row] = id != null ? id.getMostSignificantBits() : 0;
+        idLeastBits[row] = id != null ? id.getLeastSignificantBits() : 0;
+        if (id != null) {
+            missingIds[row >>> 6] &= ~(1L << row);
+        } else {
+            missingIds[row >>> 6] |= 1L << row;
+        }
+        versions[row] = beer.getVersion() != null ? beer.getVersion() : NULL_INT;
+        names[row] = intern(beer.getBeerName());
+        styles[row] = beer.getBeerStyle() != null ? (byte) beer.getBeerStyle().ordinal() : NULL_BYTE;
+        upcs[row] = intern(beer.getUpc());
+        quantities[row] = beer.getQuantityOnHand() != null ? beer.getQuantityOnHand() : NULL_INT;
+        createdDates[row] = createdDate;
+        updateDates[row] = updateDate;
+    }
+
+    private boolean hasId(int row) {
+        return (missingIds[row >>> 6] & (1L << row)) == 0;
+    }
+
+    private void writePrice(int row, BigDecimal price) {
+        if (price == null) {
+            priceScales[row] = Byte.MIN_VALUE;
+            return;
+        }
+        BigDecimal stripped = price.scale() > Byte.MAX_VALUE ? price.stripTrailingZeros() : price;
+        BigInteger unscaled = stripped.unscaledValue();
+        if (unscaled.bitLength() > 63 || stripped.scale() > Byte.MAX_VALUE || stripped.scale() <= Byte.MIN_VALUE) {
+            throw new IllegalArgumentException("Price " + price + " does not fit a long with a byte scale");
+        }
+        unscaledPrices[row] = unscaled.longValue();
+        priceScales[row] = (byte) stripped.scale();
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return -1;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int mask = stringSlots.length - 1;
+        int slot = hash(bytes, 0, bytes.length) & mask;
+        for (; stringSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = stringSlots[slot] - 1;
+            if (Arrays.equals(bytes, 0, bytes.length,
+                    stringBytes, stringOffsets[index], stringOffsets[index + 1])) {
+                return index;
+            }
+        }
+
+        if (stringBytesUsed + bytes.length > stringBytes.length) {
+            stringBytes = Arrays.copyOf(stringBytes, Math.max(stringBytes.length * 2, stringBytesUsed + bytes.length));
+        }
+        if (stringCount + 2 > stringOffsets.length) {
+            stringOffsets = Arrays.copyOf(stringOffsets, stringOffsets.length * 2);
+        }
+        System.arraycopy(bytes, 0, stringBytes, stringBytesUsed, bytes.length);
+        stringBytesUsed += bytes.length;
+        int index = stringCount++;
+        stringOffsets[index + 1] = stringBytesUsed;
+        stringSlots[slot] = index + 1;
+
+        if (stringCount * 2 > stringSlots.length) {
+            stringSlots = new int[stringSlots.length << 1];
+            for (int existing = 0; existing < stringCount; existing++) {
+                int rehashed = hash(stringBytes, stringOffsets[existing], stringOffsets[existing + 1])
+                        & (stringSlots.length - 1);
+                while (stringSlots[rehashed] != 0) {
+                    rehashed = (rehashed + 1) & (stringSlots.length - 1);
+                }
+                stringSlots[rehashed] = existing + 1;
+            }
+        }
+        return index;
+    }
+
+    private String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+        int from = stringOffsets[index];
+        return new String(stringBytes, from, stringOffsets[index + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    private void index(int row) {
+        if ((size << 1) > slots.length) {
+            slots = new int[slots.length << 1];
+            for (int existing = 0; existing < size; existing++) {
+                if (existing != row && hasId(existing)) {
+                    insert(existing);
+                }
+            }
+        }
+        insert(row);
+    }
+
+    private void insert(int row) {
+        int mask = slots.length - 1;
+        int slot = hash(idMostBits[row], idLeastBits[row]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private void allocate(int capacity) {
+        idMostBits = grow(idMostBits, capacity);
+        idLeastBits = grow(idLeastBits, capacity);
+        missingIds = grow(missingIds, (capacity + 63) >>> 6);
+        versions = grow(versions, capacity);
+        names = grow(names, capacity);
+        styles = grow(styles, capacity);
+        upcs = grow(upcs, capacity);
+        quantities = grow(quantities, capacity);
+        unscaledPrices = grow(unscaledPrices, capacity);
+        priceScales = grow(priceScales, capacity);
+        createdDates = grow(createdDates, capacity);
+        updateDates = grow(updateDates, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + bytes[i];
+        }
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_LONG;
+        }
+        long epochNanos;
+        try {
+            epochNanos = Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L),
+                    dateTime.getNano());
+        } catch (ArithmeticException ex) {
+            epochNanos = NULL_LONG;
+        }
+        // the smallest long is taken by the null sentinel
+        if (epochNanos == NULL_LONG) {
+            throw new IllegalArgumentException("Date " + dateTime + " does not fit epoch nanoseconds in a long");
+        }
+        return epochNanos;
+    }
+
+    private static LocalDateTime toDateTime(long epochNanos) {
+        if (epochNanos == NULL_LONG) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static long[] grow(long[] column, int capacity) {
+        return column == null ? new long[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static int[] grow(int[] column, int capacity) {
+        return column == null ? new int[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static byte[] grow(byte[] column, int capacity) {
+        return column == null ? new byte[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    /**
+     * Flyweight over one row. Getters read the columns, so Lombok's equals, hashCode and toString work unchanged;
+     * setters are rejected because the view has no storage of its own.
+     */
+    private class Row extends BeerDTO {
+        private int row;
+
+        Row(int row) {
+            super(null, null, null, null, null, null, null, null, null);
+            this.row = row;
+        }
+
+        @Override
+        public UUID getId() {
+            return id(row);
+        }
+
+        @Override
+        public Integer getVersion() {
+            return version(row);
+        }
+
+        @Override
+        public String getBeerName() {
+            return beerName(row);
+        }
+
+        @Override
+        public BeerStyle getBeerStyle() {
+            return beerStyle(row);
+        }
+
+        @Override
+        public String getUpc() {
+            return upc(row);
+        }
+
+        @Override
+        public Integer getQuantityOnHand() {
+            return quantityOnHand(row);
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price(row);
+        }
+
+        @Override
+        public LocalDateTime getCreatedDate() {
+            return createdDate(row);
+        }
+
+        @Override
+        public LocalDateTime getUpdateDate() {
+            return updateDate(row);
+        }
+
+        @Override
+        public BeerDTOBuilder toBuilder() {
+            return BeerDTO.builder()
+                    .id(getId())
+                    .version(getVersion())
+                    .beerName(getBeerName())
+                    .beerStyle(getBeerStyle())
+                    .upc(getUpc())
+                    .quantityOnHand(getQuantityOnHand())
+                    .price(getPrice())
+                    .createdDate(getCreatedDate())
+                    .updateDate(getUpdateDate());
+        }
+
+        @Override
+        public void setId(UUID id) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setVersion(Integer version) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setBeerName(String beerName) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setBeerStyle(BeerStyle beerStyle) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setUpc(String upc) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setQuantityOnHand(Integer quantityOnHand) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setPrice(BigDecimal price) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setCreatedDate(LocalDateTime createdDate) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setUpdateDate(LocalDateTime updateDate) {
+            throw readOnly();
+        }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Beer table views are read-only, use put instead");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package guru.springframework.spring6resttemplate.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkWriteReport {
+    private final List<BulkWriteResult> results;
+
+    public long count(BulkWriteStatus status) {
+        return results.stream().filter(result -> result.getStatus() == status).count();
+    }
+
+    public List<BulkWriteResult> failures() {
+        return results.stream().filter(result -> result.getStatus() != BulkWriteStatus.SUCCESS).toList();
+    }
+}
@@ -0,0 +1,16 @@
+package guru.springframework.spring6resttemplate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Builder
+@Data
+public class BulkWriteResult {
+    private long index;
+    private UUID beerId;
+    private BulkWriteStatus status;
+    private BeerDTO beer;
+    private String message;
+}
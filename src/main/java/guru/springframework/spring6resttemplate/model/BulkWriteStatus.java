@@ -0,0 +1,5 @@
+package guru.springframework.spring6resttemplate.model;
+
+public enum BulkWriteStatus {
+    SUCCESS, CONFLICT, FAILED
+}
@@ -0,0 +1,48 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncBeerClientImplTest {
+
+    @Test
+    void testInFlightRequestsAreBounded() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        BeerClient beerClient = mock(BeerClient.class);
+        when(beerClient.getBeerById(any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return Optional.of(BeerDTO.builder().id(invocation.getArgument(0)).build());
+        });
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        AsyncBeerClientImpl asyncBeerClient = new AsyncBeerClientImpl(beerClient, executor, 4);
+
+        List<CompletableFuture<Optional<BeerDTO>>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(asyncBeerClient.getBeerById(UUID.randomUUID()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        executor.shutdown();
+
+        assertThat(futures).allMatch(future -> future.join().isPresent());
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(4);
+    }
+}
@@ -0,0 +1,184 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BeerCatalogueReplicaTest {
+
+    CachingBeerClientTest.MutableClock clock = new CachingBeerClientTest.MutableClock();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BeerClientImpl delegate = mock(BeerClientImpl.class);
+    List<BeerDTO> remote = new ArrayList<>();
+    IntConsumer afterPage = page -> { };
+    BeerCatalogueReplica replica;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(delegate.listBeers(any(), any(), any(), any(), any(), any(Consumer.class))).thenAnswer(invocation -> {
+            int page = invocation.<Optional<Integer>>getArgument(3).orElseThrow();
+            int size = invocation.<Optional<Integer>>getArgument(4).orElseThrow();
+            Consumer<BeerDTO> consumer = invocation.getArgument(5);
+
+            List<BeerDTO> content = remote.subList(Math.min((page - 1) * size, remote.size()), Math.min(page * size, remote.size()));
+            content.forEach(beer -> consumer.accept(beer.toBuilder().build()));
+            BeerPageSummary summary = BeerPageSummary.builder().number(page).size(size).totalElements(remote.size())
+                    .numberOfElements(content.size()).build();
+            afterPage.accept(page);
+            return summary;
+        });
+        when(delegate.getBeersByIds(any())).thenAnswer(invocation -> {
+            Collection<UUID> beerIds = invocation.getArgument(0);
+            return remote.stream()
+                    .filter(beer -> beerIds.contains(beer.getId()))
+                    .collect(Collectors.toMap(BeerDTO::getId, beer -> beer.toBuilder().build()));
+        });
+
+        for (int i = 0; i < 250; i++) {
+            remote.add(beer("Beer " + i, BeerStyle.values()[i % BeerStyle.values().length]));
+        }
+        remote.add(beer("Mango Bobs", BeerStyle.IPA));
+        remote.add(beer("Mango Tango", BeerStyle.PALE_ALE));
+
+        replica = new BeerCatalogueReplica(delegate, Duration.ofSeconds(30), Duration.ofMinutes(2), 100, meterRegistry, clock);
+        replica.sync();
+    }
+
+    @Test
+    void testServesReadsFromIndexes() {
+        BeerDTO mangoBobs = remote.get(250);
+
+        assertThat(replica.size()).isEqualTo(252);
+        assertThat(replica.getBeerById(mangoBobs.getId())).contains(mangoBobs);
+        assertThat(replica.listBeers(Optional.of("mango"), Optional.empty(), Optional.empty(), Optional.empty()))
+                .extracting(BeerDTO::getBeerName).containsExactly("Mango Bobs", "Mango Tango");
+        assertThat(replica.listBeers(Optional.of("MANGO"), Optional.of(BeerStyle.IPA), Optional.empty(), Optional.empty()))
+                .extracting(BeerDTO::getBeerName).containsExactly("Mango Bobs");
+
+        Page<BeerDTO> ipas = replica.listBeers(Optional.empty(), Optional.of(BeerStyle.IPA), Optional.of(2), Optional.of(10));
+        assertThat(ipas.getTotalElements()).isEqualTo(26);
+        assertThat(ipas.getContent()).hasSize(10).allMatch(beer -> beer.getBeerStyle() == BeerStyle.IPA);
+        verify(delegate, never()).getBeerById(any());
+    }
+
+    @Test
+    void testPagesAndTotalsFollowIndexCounts() {
+        Page<BeerDTO> lastPage = replica.listBeers(Optional.empty(), Optional.empty(), Optional.of(26), Optional.of(10));
+        assertThat(lastPage.getTotalElements()).isEqualTo(252);
+        assertThat(lastPage.getContent()).hasSize(2);
+
+        Page<BeerDTO> pastTheEnd = replica.listBeers(Optional.of("beer 1"), Optional.empty(), Optional.of(20), Optional.of(10));
+        assertThat(pastTheEnd.getTotalElements()).isEqualTo(111);
+        assertThat(pastTheEnd.getContent()).isEmpty();
+
+        remote.remove(251);
+        clock.advance(Duration.ofSeconds(30));
+        replica.sync();
+
+        assertThat(replica.listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())
+                .getTotalElements()).isEqualTo(251);
+        assertThat(replica.listBeers(Optional.empty(), Optional.of(BeerStyle.PALE_ALE), Optional.empty(), Optional.empty())
+                .getTotalElements()).isEqualTo(25);
+    }
+
+    @Test
+    void testLagCountsFromCreationUntilFirstSync() {
+        BeerCatalogueReplica unsynced = new BeerCatalogueReplica(delegate, Duration.ofSeconds(30), Duration.ofMinutes(2),
+                100, new SimpleMeterRegistry(), clock);
+
+        clock.advance(Duration.ofSeconds(45));
+
+        assertThat(unsynced.lag()).isEqualTo(Duration.ofSeconds(45));
+        assertThat(unsynced.isFresh()).isFalse();
+    }
+
+    @Test
+    void testDeltaSyncAppliesChangesAndDeletions() {
+        BeerDTO renamed = remote.get(250);
+        renamed.setBeerName("Papaya Bobs");
+        renamed.setVersion(2);
+        BeerDTO deleted = remote.remove(251);
+
+        clock.advance(Duration.ofSeconds(30));
+        replica.sync();
+
+        assertThat(replica.getBeerById(deleted.getId())).isEmpty();
+        assertThat(replica.listBeers(Optional.of("mango"), Optional.empty(), Optional.empty(), Optional.empty())).isEmpty();
+        assertThat(replica.listBeers(Optional.of("papaya"), Optional.of(BeerStyle.IPA), Optional.empty(), Optional.empty()))
+                .extracting(BeerDTO::getId).containsExactly(renamed.getId());
+        assertThat(meterRegistry.counter("beer.client.replica.changes", "type", "upsert").count()).isEqualTo(253);
+        assertThat(meterRegistry.counter("beer.client.replica.changes", "type", "delete").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testBeersShiftedAcrossPagesDuringSyncAreKept() {
+        BeerDTO deleted = remote.get(0);
+        BeerDTO shifted = remote.get(100);
+        // deleting from the first page moves the first beer of the second page back onto the first one
+        afterPage = page -> {
+            if (page == 1) {
+                remote.remove(0);
+            }
+        };
+
+        clock.advance(Duration.ofSeconds(30));
+        replica.sync();
+
+        assertThat(replica.getBeerById(shifted.getId())).contains(shifted);
+        verify(delegate).getBeersByIds(List.of(shifted.getId()));
+
+        afterPage = page -> { };
+        clock.advance(Duration.ofSeconds(30));
+        replica.sync();
+
+        assertThat(replica.getBeerById(deleted.getId())).isEmpty();
+        assertThat(replica.size()).isEqualTo(251);
+        assertThat(meterRegistry.counter("beer.client.replica.changes", "type", "delete").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFallsBackToApiWhenStale() {
+        UUID beerId = remote.get(0).getId();
+        when(delegate.getBeerById(beerId)).thenReturn(Optional.of(remote.get(0)));
+
+        clock.advance(Duration.ofMinutes(3));
+
+        assertThat(replica.isFresh()).isFalse();
+        assertThat(meterRegistry.get("beer.client.replica.lag").gauge().value()).isEqualTo(180.0);
+        assertThat(replica.getBeerById(beerId)).isPresent();
+        verify(delegate).getBeerById(beerId);
+    }
+
+    private static BeerDTO beer(String name, BeerStyle style) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName(name)
+                .beerStyle(style)
+                .updateDate(LocalDateTime.now())
+                .build();
+    }
+}
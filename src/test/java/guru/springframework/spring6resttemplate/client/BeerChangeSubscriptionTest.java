@@ -0,0 +1,213 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import guru.springframework.spring6resttemplate.model.BeerChangeBatch;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerChangeSubscriptionTest {
+
+    static final int MAX_BATCH = 3;
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    HttpServer server;
+    ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    List<BeerDTO> feed = new ArrayList<>();
+    AtomicInteger polls = new AtomicInteger();
+    AtomicInteger unavailable = new AtomicInteger();
+    AtomicInteger disconnects = new AtomicInteger();
+    BeerClientImpl beerClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(BeerClientImpl.BEER_CHANGES_PATH, this::changes);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder()
+                .rootUri("http://localhost:" + server.getAddress().getPort());
+        beerClient = new BeerClientImpl(restTemplateBuilder, 16, 0, true, 100, 8, Duration.ofSeconds(1), 2,
+                Duration.ofMillis(10), Duration.ofMillis(50), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerClient.destroy();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void testChangesAreDeliveredInOrderAcrossFailures() throws Exception {
+        List<BeerDTO> received = new CopyOnWriteArrayList<>();
+
+        try (BeerChangeSubscription subscription = beerClient.subscribeChanges(received::add)) {
+            awaitPolls(1);
+            List<BeerDTO> published = new ArrayList<>(publish(5));
+            await(() -> received.size() == 5);
+            unavailable.set(2);
+            disconnects.set(2);
+            published.addAll(publish(5));
+            await(() -> received.size() == 10);
+
+            assertThat(received).containsExactlyElementsOf(published);
+            assertThat(unavailable.get()).isZero();
+            assertThat(disconnects.get()).isZero();
+            await(() -> subscription.cursor().equals(Optional.of("10")));
+        }
+    }
+
+    @Test
+    void testSlowListenerPausesPolling() throws Exception {
+        List<BeerDTO> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (BeerChangeSubscription ignored = beerClient.subscribeChanges(beer -> {
+            awaitQuietly(release);
+            received.add(beer);
+        })) {
+            awaitPolls(1);
+            List<BeerDTO> published = publish(12);
+
+            // the first batch fills the listener and the queue, the second waits for room, so polling stops
+            Thread.sleep(200);
+            int pollsWhileBlocked = polls.get();
+            Thread.sleep(300);
+            assertThat(polls.get()).isEqualTo(pollsWhileBlocked);
+            assertThat(received).isEmpty();
+
+            release.countDown();
+            await(() -> received.size() == 12);
+            assertThat(received).containsExactlyElementsOf(published);
+        }
+    }
+
+    @Test
+    void testSubscriptionResumesFromCursor() throws Exception {
+        List<BeerDTO> received = new CopyOnWriteArrayList<>();
+        Optional<String> cursor;
+
+        try (BeerChangeSubscription subscription = beerClient.subscribeChanges(received::add)) {
+            awaitPolls(1);
+            publish(3);
+            await(() -> subscription.cursor().equals(Optional.of("3")));
+            cursor = subscription.cursor();
+        }
+        List<BeerDTO> missed = publish(2);
+
+        List<BeerDTO> resumed = new CopyOnWriteArrayList<>();
+        try (BeerChangeSubscription ignored = beerClient.subscribeChanges(cursor, resumed::add)) {
+            await(() -> resumed.size() == 2);
+        }
+        assertThat(received).hasSize(3);
+        assertThat(resumed).containsExactlyElementsOf(missed);
+    }
+
+    private List<BeerDTO> publish(int count) {
+        List<BeerDTO> beers = new ArrayList<>();
+        synchronized (feed) {
+            for (int i = 0; i < count; i++) {
+                BeerDTO beer = BeerDTO.builder().id(UUID.randomUUID()).version(1).beerName("Beer " + feed.size()).build();
+                feed.add(beer);
+                beers.add(beer);
+            }
+            feed.notifyAll();
+        }
+        return beers;
+    }
+
+    /**
+     * The cursor is the index into the feed; without one the feed starts at its current end. Holds the poll for up
+     * to {@code waitSeconds} while there is nothing new and answers with at most {@link #MAX_BATCH} beers.
+     */
+    private void changes(HttpExchange exchange) throws IOException {
+        if (disconnects.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            polls.incrementAndGet();
+            exchange.close();
+            return;
+        }
+        if (unavailable.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            polls.incrementAndGet();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build().getQueryParams();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(params.getFirst("waitSeconds")));
+        List<BeerDTO> beers;
+        int next;
+        synchronized (feed) {
+            int from = params.containsKey("cursor") ? Integer.parseInt(params.getFirst("cursor")) : feed.size();
+            polls.incrementAndGet();
+            long remaining;
+            while (feed.size() <= from && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(feed, remaining);
+                } catch (InterruptedException ex) {
+                    exchange.close();
+                    return;
+                }
+            }
+            next = Math.min(feed.size(), from + MAX_BATCH);
+            beers = List.copyOf(feed.subList(from, next));
+        }
+
+        byte[] payload = objectMapper.writeValueAsBytes(BeerChangeBatch.builder()
+                .cursor(Integer.toString(next))
+                .beers(beers)
+                .build());
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, payload.length);
+        exchange.getResponseBody().write(payload);
+        exchange.close();
+    }
+
+    private void awaitPolls(int count) throws InterruptedException {
+        await(() -> polls.get() >= count);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
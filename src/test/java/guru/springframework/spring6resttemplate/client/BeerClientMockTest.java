@@ -2,24 +2,32 @@ package guru.springframework.spring6resttemplate.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.config.CircuitBreakerInterceptor;
+import guru.springframework.spring6resttemplate.config.ConcurrencyLimitInterceptor;
+import guru.springframework.spring6resttemplate.config.GzipRequestInterceptor;
+import guru.springframework.spring6resttemplate.config.LoadBalancingInterceptor;
 import guru.springframework.spring6resttemplate.config.OAuthClientInterceptor;
 import guru.springframework.spring6resttemplate.config.RestTemplateBuilderConfig;
+import guru.springframework.spring6resttemplate.config.RetryInterceptor;
+import guru.springframework.spring6resttemplate.config.TrafficCaptureInterceptor;
 import guru.springframework.spring6resttemplate.model.BeerDTO;
 import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
 import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
@@ -30,17 +38,31 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -60,14 +82,15 @@ public class BeerClientMockTest {
 
     MockRestServiceServer mockServer;
 
+    RestTemplate restTemplate;
+
     @Autowired
     RestTemplateBuilder restTemplateBuilderConfigured;
 
     @Autowired
     ObjectMapper objectMapper;
 
-    @Mock
-    RestTemplateBuilder mockRestTemplateBuilder = new RestTemplateBuilder(new MockServerRestTemplateCustomizer());
+    RestTemplateBuilder mockServerRestTemplateBuilder;
 
     BeerDTO beerDto;
     String payload;
@@ -94,8 +117,50 @@ public class BeerClientMockTest {
         }
 
         @Bean
-        OAuthClientInterceptor oAuthClientInterceptor(OAuth2AuthorizedClientManager manager, ClientRegistrationRepository clientRegistrationRepository) {
-            return new OAuthClientInterceptor(manager, clientRegistrationRepository);
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        OAuthClientInterceptor oAuthClientInterceptor(OAuth2AuthorizedClientManager manager,
+                                                      ClientRegistrationRepository clientRegistrationRepository,
+                                                      OAuth2AuthorizedClientService oAuth2AuthorizedClientService,
+                                                      MeterRegistry meterRegistry) {
+            return new OAuthClientInterceptor(manager, clientRegistrationRepository, oAuth2AuthorizedClientService,
+                    Duration.ofSeconds(60), 1000, Duration.ofHours(1), meterRegistry);
+        }
+
+        @Bean
+        TrafficCaptureInterceptor trafficCaptureInterceptor(MeterRegistry meterRegistry) {
+            return new TrafficCaptureInterceptor(false, Path.of("beer-traffic.capture"), DataSize.ofMegabytes(256),
+                    meterRegistry);
+        }
+
+        @Bean
+        CircuitBreakerInterceptor circuitBreakerInterceptor(Environment environment, MeterRegistry meterRegistry) {
+            return new CircuitBreakerInterceptor(environment, meterRegistry);
+        }
+
+        @Bean
+        ConcurrencyLimitInterceptor concurrencyLimitInterceptor(Environment environment, MeterRegistry meterRegistry) {
+            return new ConcurrencyLimitInterceptor(environment, meterRegistry);
+        }
+
+        @Bean
+        LoadBalancingInterceptor loadBalancingInterceptor(MeterRegistry meterRegistry) {
+            return new LoadBalancingInterceptor(List.of(), Duration.ofSeconds(10), 50, 10, 20, Duration.ofSeconds(30),
+                    meterRegistry);
+        }
+
+        @Bean
+        GzipRequestInterceptor gzipRequestInterceptor() {
+            return new GzipRequestInterceptor(false, DataSize.ofKilobytes(8));
+        }
+
+        @Bean
+        RetryInterceptor retryInterceptor(OAuthClientInterceptor oAuthClientInterceptor, MeterRegistry meterRegistry) {
+            return new RetryInterceptor(oAuthClientInterceptor, 3, Duration.ofMillis(50), Duration.ofSeconds(1), 0.1, 10,
+                    false, Duration.ofMillis(10), meterRegistry);
         }
     }
 
@@ -109,10 +174,12 @@ public class BeerClientMockTest {
         OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "test", Instant.MIN, Instant.MAX);
         when(manager.authorize(any())).thenReturn(new OAuth2AuthorizedClient(clientRegistration, "test", token));
 
-        RestTemplate restTemplate = restTemplateBuilderConfigured.build();
-        mockServer = MockRestServiceServer.bindTo(restTemplate).build();
-        when(mockRestTemplateBuilder.build()).thenReturn(restTemplate);
-        beerClient = new BeerClientImpl(mockRestTemplateBuilder);
+        // every client gets its own template; the server follows the one built last
+        mockServerRestTemplateBuilder = restTemplateBuilderConfigured.additionalCustomizers(template -> {
+            restTemplate = template;
+            mockServer = MockRestServiceServer.bindTo(template).build();
+        });
+        beerClient = beerClient(true, new SimpleMeterRegistry());
 
         beerDto = getBeerDto();
         payload = objectMapper.writeValueAsString(beerDto);
@@ -144,6 +211,25 @@ public class BeerClientMockTest {
         assertThat(beerDTOS.getContent().size()).isGreaterThan(0);
     }
 
+    @Test
+    void testStreamBeers() throws JsonProcessingException {
+        BeerDTO secondBeer = getBeerDto();
+        String firstPage = objectMapper.writeValueAsString(new BeerDTOPageImpl(List.of(beerDto), 0, 1, 2));
+        String secondPage = objectMapper.writeValueAsString(new BeerDTOPageImpl(List.of(secondBeer), 1, 1, 2));
+
+        mockServer.expect(method(HttpMethod.GET))
+                .andExpect(requestTo(URL + BeerClientImpl.BEER_PATH + "?pageNumber=1&pageSize=1"))
+                .andRespond(withSuccess(firstPage, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.GET))
+                .andExpect(requestTo(URL + BeerClientImpl.BEER_PATH + "?pageNumber=2&pageSize=1"))
+                .andRespond(withSuccess(secondPage, MediaType.APPLICATION_JSON));
+
+        try (Stream<BeerDTO> beers = beerClient.streamBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1))) {
+            assertThat(beers.map(BeerDTO::getId)).containsExactly(beerDto.getId(), secondBeer.getId());
+        }
+        mockServer.verify();
+    }
+
     @Test
     void testGetBeer() {
 
@@ -154,6 +240,69 @@ public class BeerClientMockTest {
         assertThat(beerById.get().getId()).isEqualTo(beerDto.getId());
     }
 
+    @Test
+    void testOperationMetrics() throws JsonProcessingException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BeerClient instrumentedClient = beerClient(true, meterRegistry);
+
+        mockGetOperation();
+        mockServer.expect(method(HttpMethod.GET))
+                .andExpect(requestTo(URL + BeerClientImpl.BEER_PATH))
+                .andRespond(withSuccess(objectMapper.writeValueAsString(getPage()), MediaType.APPLICATION_JSON));
+
+        instrumentedClient.getBeerById(beerDto.getId());
+        instrumentedClient.listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+        assertThat(meterRegistry.get("beer.client.operations")
+                .tags("operation", "getBeerById", "outcome", "SUCCESS", "status", "200").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("beer.client.deserialization").tag("operation", "listBeers").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("beer.client.response.size").tag("operation", "listBeers").summary().totalAmount())
+                .isGreaterThan(0);
+    }
+
+    @Test
+    void testWriteKeepsItsStatusAcrossReadAfterWrite() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BeerClient instrumentedClient = beerClient(true, meterRegistry);
+
+        mockServer.expect(method(HttpMethod.PUT))
+                .andRespond(withNoContent());
+        mockGetOperation();
+
+        instrumentedClient.updateBeer(beerDto);
+
+        assertThat(meterRegistry.get("beer.client.operations")
+                .tags("operation", "updateBeer", "outcome", "SUCCESS", "status", "204").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("beer.client.operations")
+                .tags("operation", "getBeerById", "status", "200").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTransportFailureIsTaggedAsIoError() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BeerClient instrumentedClient = beerClient(true, meterRegistry);
+
+        // retried by RetryInterceptor before it gives up
+        mockServer.expect(ExpectedCount.manyTimes(), method(HttpMethod.DELETE))
+                .andRespond(withException(new SocketTimeoutException("read timed out")));
+
+        assertThrows(ResourceAccessException.class, () -> instrumentedClient.deleteBeer(beerDto.getId()));
+
+        assertThat(meterRegistry.get("beer.client.operations")
+                .tags("operation", "deleteBeer", "outcome", "UNKNOWN", "status", "IO_ERROR").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testClientsDoNotShareInterceptors() {
+        beerClient(true, new SimpleMeterRegistry());
+        RestTemplate first = restTemplate;
+        beerClient(true, new SimpleMeterRegistry());
+
+        assertThat(restTemplate).isNotSameAs(first);
+        assertThat(restTemplate.getInterceptors()).hasSameSizeAs(first.getInterceptors());
+        assertThat(restTemplateBuilderConfigured.build().getInterceptors()).hasSize(first.getInterceptors().size() - 1);
+    }
+
     @Test
     void testCreateBeer() {
 
@@ -171,6 +320,52 @@ public class BeerClientMockTest {
         assertThat(beerById.get().getId()).isEqualTo(beerDto.getId());
     }
 
+    @Test
+    void testCreateBeerWithoutReadAfterWrite() {
+        BeerClient singleRoundTripClient = beerClient(false, new SimpleMeterRegistry());
+        URI uri = UriComponentsBuilder.fromPath(BeerClientImpl.BEER_BY_ID_PATH).build(beerDto.getId());
+
+        mockServer.expect(method(HttpMethod.POST))
+                .andExpect(requestTo(URL + BeerClientImpl.BEER_PATH))
+                .andRespond(withCreatedEntity(uri).header("ETag", "\"0\""));
+
+        Optional<BeerDTO> created = singleRoundTripClient.createBeer(beerDto.toBuilder().id(null).build());
+
+        mockServer.verify();
+        assertThat(created.get().getId()).isEqualTo(beerDto.getId());
+        assertThat(created.get().getVersion()).isEqualTo(0);
+        assertThat(created.get().getBeerName()).isEqualTo(beerDto.getBeerName());
+    }
+
+    @Test
+    void testUpdateBeerWithoutReadAfterWriteOrETag() {
+        BeerClient singleRoundTripClient = beerClient(false, new SimpleMeterRegistry());
+        BeerDTO sent = beerDto.toBuilder().version(3).updateDate(LocalDateTime.now()).build();
+
+        mockServer.expect(method(HttpMethod.PUT))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, beerDto.getId()))
+                .andRespond(withNoContent());
+
+        Optional<BeerDTO> updated = singleRoundTripClient.updateBeer(sent);
+
+        mockServer.verify();
+        assertThat(updated.get().getBeerName()).isEqualTo(beerDto.getBeerName());
+        assertThat(updated.get().getVersion()).isNull();
+        assertThat(updated.get().getUpdateDate()).isNull();
+    }
+
+    @Test
+    void testUpdateBeerUsesResponseBody() {
+        mockServer.expect(method(HttpMethod.PUT))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, beerDto.getId()))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        Optional<BeerDTO> optUpdatedBeerDTO = beerClient.updateBeer(beerDto);
+
+        mockServer.verify();
+        assertThat(optUpdatedBeerDTO.get().getId()).isEqualTo(beerDto.getId());
+    }
+
     @Test
     void testUpdateBeer() {
         mockServer.expect(method(HttpMethod.PUT))
@@ -186,6 +381,103 @@ public class BeerClientMockTest {
         assertThat(optUpdatedBeerDTO.get().getId()).isEqualTo(beerDto.getId());
     }
 
+    @Test
+    void testPatchBeerSendsOnlyChangedFields() {
+        BeerDTO baseline = beerDto.toBuilder().version(3).build();
+        BeerDTO updated = baseline.toBuilder().quantityOnHand(450).price(new BigDecimal("10.00")).build();
+
+        mockServer.expect(method(HttpMethod.PATCH))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, beerDto.getId()))
+                .andExpect(header("If-Match", "\"3\""))
+                .andExpect(content().contentType("application/merge-patch+json"))
+                .andExpect(content().json("{\"quantityOnHand\":450,\"price\":10.00}", JsonCompareMode.STRICT))
+                .andRespond(withNoContent());
+        mockGetOperation();
+
+        Optional<BeerDTO> patched = beerClient.patchBeer(baseline, updated);
+
+        mockServer.verify();
+        assertThat(patched.get().getId()).isEqualTo(beerDto.getId());
+    }
+
+    @Test
+    void testPatchBeerSkipsRequestWhenNothingChanged() {
+        BeerDTO baseline = beerDto.toBuilder().version(3).price(new BigDecimal("12.9")).build();
+        BeerDTO updated = baseline.toBuilder().price(new BigDecimal("12.90")).build();
+
+        Optional<BeerDTO> patched = beerClient.patchBeer(baseline, updated);
+
+        mockServer.verify();
+        assertThat(patched).contains(baseline);
+    }
+
+    @Test
+    void testPatchBeerRejectedOnVersionConflict() {
+        BeerDTO baseline = beerDto.toBuilder().version(3).build();
+
+        mockServer.expect(method(HttpMethod.PATCH))
+                .andExpect(header("If-Match", "\"3\""))
+                .andExpect(content().json("{\"beerName\":null}", JsonCompareMode.STRICT))
+                .andRespond(withStatus(HttpStatus.PRECONDITION_FAILED));
+
+        HttpClientErrorException ex = assertThrows(HttpClientErrorException.class,
+                () -> beerClient.patchBeer(baseline, baseline.toBuilder().beerName(null).build()));
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testGetBeersByIds() {
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        UUID missingId = UUID.randomUUID();
+
+        mockGetOperation();
+        mockServer.expect(method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, missingId))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andRespond(withResourceNotFound());
+
+        Map<UUID, BeerDTO> beers = beerClient.getBeersByIds(List.of(beerDto.getId(), missingId, beerDto.getId()));
+
+        assertThat(beers).containsOnlyKeys(beerDto.getId());
+        mockServer.verify();
+    }
+
+    @Test
+    void testConcurrentLookupsOfTheSameIdShareOneRequest() throws Exception {
+        CountDownLatch requestSent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        mockServer.expect(ExpectedCount.once(), method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, beerDto.getId()))
+                .andRespond(request -> {
+                    requestSent.countDown();
+                    try {
+                        assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return withSuccess(payload, MediaType.APPLICATION_JSON).createResponse(request);
+                });
+
+        FutureTask<Map<UUID, BeerDTO>> first = new FutureTask<>(() -> beerClient.getBeersByIds(List.of(beerDto.getId())));
+        FutureTask<Map<UUID, BeerDTO>> second = new FutureTask<>(() -> beerClient.getBeersByIds(List.of(beerDto.getId())));
+        new Thread(first).start();
+        assertThat(requestSent.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // the second caller arrives while the first lookup is still in flight and parks on it
+        Thread secondCaller = new Thread(second);
+        secondCaller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (secondCaller.getState() != Thread.State.WAITING && System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+        assertThat(secondCaller.getState()).isEqualTo(Thread.State.WAITING);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).containsOnlyKeys(beerDto.getId());
+        assertThat(second.get(5, TimeUnit.SECONDS)).containsOnlyKeys(beerDto.getId());
+        mockServer.verify();
+    }
+
     @Test
     void testDeleteBeer() {
         mockServer.expect(method(HttpMethod.DELETE))
@@ -210,6 +502,11 @@ public class BeerClientMockTest {
         mockServer.verify();
     }
 
+    private BeerClientImpl beerClient(boolean readAfterWrite, MeterRegistry meterRegistry) {
+        return new BeerClientImpl(mockServerRestTemplateBuilder, 16, 2, readAfterWrite, 100, 8, Duration.ofSeconds(5),
+                1000, Duration.ofSeconds(1), Duration.ofSeconds(30), meterRegistry);
+    }
+
     private void mockGetOperation() {
         mockServer.expect(method(HttpMethod.GET))
                 .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, beerDto.getId()))
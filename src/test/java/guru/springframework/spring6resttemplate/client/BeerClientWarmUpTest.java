@@ -0,0 +1,113 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.sun.net.httpserver.HttpServer;
+import guru.springframework.spring6resttemplate.config.OAuthClientInterceptor;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BeerClientWarmUpTest {
+
+    HttpServer tokenServer;
+    AtomicInteger tokenRequests = new AtomicInteger();
+    InMemoryClientRegistrationRepository repository;
+    InMemoryOAuth2AuthorizedClientService authorizedClientService;
+    AuthorizedClientServiceOAuth2AuthorizedClientManager manager;
+    BeerClientImpl beerClient = mock(BeerClientImpl.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        tokenServer.createContext("/oauth2/token", exchange -> {
+            byte[] payload = ("{\"access_token\":\"token-" + tokenRequests.incrementAndGet()
+                    + "\",\"token_type\":\"Bearer\",\"expires_in\":3600}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+            exchange.close();
+        });
+        tokenServer.start();
+
+        repository = new InMemoryClientRegistrationRepository(ClientRegistration
+                .withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("test")
+                .clientSecret("secret")
+                .tokenUri("http://localhost:" + tokenServer.getAddress().getPort() + "/oauth2/token")
+                .build());
+        authorizedClientService = new InMemoryOAuth2AuthorizedClientService(repository);
+        manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(repository, authorizedClientService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenServer.stop(0);
+    }
+
+    @Test
+    void testWarmsUpTokenConnectionsAndCalls() throws Exception {
+        BeerDTO beer = BeerDTO.builder().id(UUID.randomUUID()).build();
+        when(beerClient.listBeers(any(), any(), any(), any(), any()))
+                .thenReturn(new BeerDTOPageImpl(List.of(beer), 0, 25, 1));
+
+        warmUp(Duration.ofSeconds(10)).start();
+
+        verify(beerClient, times(4)).listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1), Optional.of(1));
+        verify(beerClient, times(3)).listBeers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1), Optional.of(25));
+        verify(beerClient, times(3)).getBeerById(beer.getId());
+        assertThat(tokenRequests.get()).isEqualTo(1);
+        assertThat(meterRegistry.timer("beer.client.warmup").count()).isEqualTo(1);
+
+        OAuthClientInterceptor interceptor = new OAuthClientInterceptor(manager, repository, authorizedClientService,
+                Duration.ofSeconds(60), 1000, Duration.ofHours(1), new SimpleMeterRegistry());
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse());
+        assertThat(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer token-1");
+        assertThat(tokenRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedWarmUpDoesNotFailStartup() {
+        when(beerClient.listBeers(any(), any(), any(), any(), any())).thenThrow(new ResourceAccessException("refused"));
+
+        BeerClientWarmUp warmUp = warmUp(Duration.ofSeconds(10));
+        warmUp.start();
+
+        assertThat(warmUp.isRunning()).isTrue();
+        verify(beerClient, atLeastOnce()).listBeers(any(), any(), any(), any(), any());
+        verify(beerClient, times(0)).getBeerById(any());
+    }
+
+    private BeerClientWarmUp warmUp(Duration timeout) {
+        return new BeerClientWarmUp(beerClient, manager, repository, "http://localhost:8080", 4, 3, timeout, meterRegistry);
+    }
+}
@@ -0,0 +1,114 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerPageSummary;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BeerPageResponseExtractorTest {
+
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void testMetadataAfterContent() throws Exception {
+        String json = """
+                {"content":[{"beerName":"Mango Bobs","beerStyle":"IPA","price":10.99},
+                            {"beerName":"Galaxy Cat","beerStyle":"PALE_ALE","price":12.99}],
+                 "pageable":{"pageNumber":3},"totalPages":7,
+                 "totalElements":14,"size":2,"number":3}
+                """;
+
+        List<BeerDTO> beers = new ArrayList<>();
+        BeerPageSummary summary = extract(json, beers);
+
+        assertThat(beers).extracting(BeerDTO::getBeerName).containsExactly("Mango Bobs", "Galaxy Cat");
+        assertThat(summary.getNumber()).isEqualTo(3);
+        assertThat(summary.getSize()).isEqualTo(2);
+        assertThat(summary.getTotalElements()).isEqualTo(14);
+        assertThat(summary.getNumberOfElements()).isEqualTo(2);
+    }
+
+    @Test
+    void testNestedPageMetadata() throws Exception {
+        String json = """
+                {"page":{"size":25,"number":0,"totalElements":1,"totalPages":1},
+                 "content":[{"beerName":"Mango Bobs"}]}
+                """;
+
+        List<BeerDTO> beers = new ArrayList<>();
+        BeerPageSummary summary = extract(json, beers);
+
+        assertThat(beers).hasSize(1);
+        assertThat(summary.getSize()).isEqualTo(25);
+        assertThat(summary.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void testNullElementInContent() throws Exception {
+        String json = """
+                {"content":[{"beerName":"Mango Bobs"},null,{"beerName":"Galaxy Cat"}],
+                 "totalElements":14,"size":2,"number":3}
+                """;
+
+        List<BeerDTO> beers = new ArrayList<>();
+        BeerPageSummary summary = extract(json, beers);
+
+        assertThat(beers).extracting(BeerDTO::getBeerName).containsExactly("Mango Bobs", "Galaxy Cat");
+        assertThat(summary.getNumberOfElements()).isEqualTo(2);
+        assertThat(summary.getTotalElements()).isEqualTo(14);
+        assertThat(summary.getNumber()).isEqualTo(3);
+    }
+
+    @Test
+    void testScalarElementInContentFails() {
+        String json = """
+                {"content":[{"beerName":"Mango Bobs"},42],"totalElements":14}
+                """;
+
+        assertThatThrownBy(() -> extract(json, new ArrayList<>()))
+                .isInstanceOf(RestClientException.class)
+                .hasMessageContaining("VALUE_NUMBER_INT");
+    }
+
+    @Test
+    void testSmilePage() throws Exception {
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        BeerDTOPageImpl page = new BeerDTOPageImpl(List.of(
+                BeerDTO.builder().beerName("Mango Bobs").beerStyle(BeerStyle.IPA).price(new BigDecimal("10.99")).build()),
+                0, 25, 1);
+
+        MockClientHttpResponse response = new MockClientHttpResponse(smileMapper.writeValueAsBytes(page), HttpStatus.OK);
+        response.getHeaders().setContentType(SMILE);
+
+        List<BeerDTO> beers = new ArrayList<>();
+        BeerPageSummary summary = new BeerPageResponseExtractor(
+                contentType -> SMILE.equals(contentType) ? smileMapper.readerFor(BeerDTO.class) : objectMapper.readerFor(BeerDTO.class),
+                beers::add).extractData(response);
+
+        assertThat(beers).extracting(BeerDTO::getPrice).containsExactly(new BigDecimal("10.99"));
+        assertThat(summary.getSize()).isEqualTo(25);
+    }
+
+    private BeerPageSummary extract(String json, List<BeerDTO> beers) throws Exception {
+        BeerPageResponseExtractor extractor = new BeerPageResponseExtractor(
+                contentType -> objectMapper.readerFor(BeerDTO.class), beers::add);
+        return extractor.extractData(new MockClientHttpResponse(json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+    }
+}
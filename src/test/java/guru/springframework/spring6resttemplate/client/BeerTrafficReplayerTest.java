@@ -0,0 +1,137 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.config.TrafficCaptureInterceptor;
+import guru.springframework.spring6resttemplate.config.TrafficCaptureInterceptor.CapturedExchange;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withNoContent;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BeerTrafficReplayerTest {
+
+    static final String URL = "http://localhost:8080";
+
+    @TempDir
+    Path tempDir;
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    BeerClient replayClient = mock(BeerClient.class);
+
+    @Test
+    void testCapturedCallsAreReplayedThroughClient() throws Exception {
+        BeerDTO beer = BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Mango Bobs")
+                .beerStyle(BeerStyle.IPA)
+                .quantityOnHand(10)
+                .price(new BigDecimal("10.99"))
+                .build();
+        String payload = objectMapper.writeValueAsString(beer);
+        Path file = tempDir.resolve("traffic.capture");
+
+        TrafficCaptureInterceptor interceptor = new TrafficCaptureInterceptor(true, file, DataSize.ofKilobytes(64),
+                new SimpleMeterRegistry());
+        MockServerRestTemplateCustomizer mockServerCustomizer = new MockServerRestTemplateCustomizer();
+        RestTemplateBuilder restTemplateBuilder = new RestTemplateBuilder(mockServerCustomizer).rootUri(URL)
+                .additionalInterceptors(interceptor);
+        BeerClientImpl capturingClient = new BeerClientImpl(restTemplateBuilder, 16, 2, true, 100, 8, Duration.ofSeconds(5),
+                1000, Duration.ofSeconds(1), Duration.ofSeconds(30), new SimpleMeterRegistry());
+        MockRestServiceServer mockServer = mockServerCustomizer.getServer();
+
+        mockServer.expect(method(HttpMethod.GET)).andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.GET)).andRespond(withSuccess(
+                "{\"content\":[],\"number\":0,\"size\":25,\"totalElements\":0}", MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.POST)).andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.PUT)).andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.PATCH)).andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.DELETE)).andRespond(withNoContent());
+
+        capturingClient.getBeerById(beer.getId());
+        capturingClient.listBeers(Optional.of("Mango Bobs"), Optional.of(BeerStyle.IPA), Optional.empty(),
+                Optional.of(2), Optional.of(25));
+        capturingClient.createBeer(beer.toBuilder().id(null).version(null).build());
+        capturingClient.updateBeer(beer);
+        capturingClient.patchBeer(beer, beer.toBuilder().quantityOnHand(5).build());
+        capturingClient.deleteBeer(beer.getId());
+        capturingClient.destroy();
+        interceptor.destroy();
+        mockServer.verify();
+
+        BeerTrafficReplayer.Report report = new BeerTrafficReplayer(replayClient, objectMapper)
+                .replay(file, BeerTrafficReplayer.AS_FAST_AS_POSSIBLE, 1);
+
+        verify(replayClient).getBeerById(beer.getId());
+        verify(replayClient).listBeers(Optional.of("Mango Bobs"), Optional.of(BeerStyle.IPA), Optional.empty(),
+                Optional.of(2), Optional.of(25));
+        verify(replayClient).createBeer(beer.toBuilder().id(null).version(null).build());
+        verify(replayClient).updateBeer(beer);
+        verify(replayClient).patchBeer(BeerDTO.builder().id(beer.getId()).build(),
+                BeerDTO.builder().id(beer.getId()).quantityOnHand(5).build());
+        verify(replayClient).deleteBeer(beer.getId());
+        assertThat(report.replayed()).isEqualTo(6);
+        assertThat(report.skipped()).isZero();
+        assertThat(report.failures()).isZero();
+        assertThat(report.latencies()).containsKeys("getBeerById/SUCCESS", "listBeers/SUCCESS", "createBeer/SUCCESS", "updateBeer/SUCCESS",
+                "patchBeer/SUCCESS", "deleteBeer/SUCCESS");
+        assertThat(report.latencies().get("listBeers/SUCCESS").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReplayKeepsCapturedPacingScaledBySpeed() {
+        List<CapturedExchange> capture = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            capture.add(new CapturedExchange(i * 100_000_000L, 1_000_000, HttpMethod.GET,
+                    "/api/v1/beer/" + UUID.randomUUID(), new byte[0], 200, 100));
+        }
+        capture.add(new CapturedExchange(0, 1_000_000, HttpMethod.GET, "/actuator/health", new byte[0], 200, 10));
+        BeerTrafficReplayer replayer = new BeerTrafficReplayer(replayClient, objectMapper);
+
+        BeerTrafficReplayer.Report realTime = replayer.replay(capture, 1, 4);
+        BeerTrafficReplayer.Report tenTimes = replayer.replay(capture, 10, 4);
+
+        assertThat(realTime.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+        assertThat(tenTimes.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(40)).isLessThan(Duration.ofMillis(400));
+        assertThat(realTime.replayed()).isEqualTo(5);
+        assertThat(realTime.skipped()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedCallsAreCountedSeparately() {
+        when(replayClient.getBeerById(any())).thenThrow(new IllegalStateException("stub down"));
+        List<CapturedExchange> capture = List.of(new CapturedExchange(0, 1_000_000, HttpMethod.GET,
+                "/api/v1/beer/" + UUID.randomUUID(), new byte[0], 200, 100));
+
+        BeerTrafficReplayer.Report report = new BeerTrafficReplayer(replayClient, objectMapper)
+                .replay(capture, BeerTrafficReplayer.AS_FAST_AS_POSSIBLE, 2);
+
+        assertThat(report.failures()).isEqualTo(1);
+        assertThat(report.latencies()).containsOnlyKeys("getBeerById/ERROR");
+    }
+}
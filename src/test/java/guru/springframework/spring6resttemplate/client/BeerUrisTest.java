@@ -0,0 +1,65 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerUrisTest {
+
+    static final String URL = "http://localhost:8080";
+
+    BeerUris beerUris = new BeerUris(new DefaultUriBuilderFactory(URL));
+
+    @Test
+    void testListingMatchesUriComponentsBuilder() {
+        for (String beerName : new String[]{"ALE", "Mango Bobs", "Crème & {Brûlée}=1+1", "100%"}) {
+            String expected = UriComponentsBuilder.fromUriString(URL + BeerClientImpl.BEER_PATH)
+                    .queryParam("beerName", beerName)
+                    .queryParam("beerStyle", BeerStyle.PALE_ALE)
+                    .queryParam("showInventory", true)
+                    .queryParam("pageNumber", 3)
+                    .queryParam("pageSize", 250)
+                    .toUriString();
+
+            String actual = beerUris.beers(Optional.of(beerName), Optional.of(BeerStyle.PALE_ALE), Optional.of(true),
+                    Optional.of(3), Optional.of(250));
+
+            assertThat(actual).isEqualTo(expected);
+            assertThat(URI.create(actual).getQuery()).startsWith("beerName=" + beerName);
+        }
+    }
+
+    @Test
+    void testOmitsAbsentParameters() {
+        assertThat(beerUris.beers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()))
+                .isEqualTo(URL + BeerClientImpl.BEER_PATH);
+        assertThat(beerUris.beers(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(2), Optional.of(1)))
+                .isEqualTo(URL + BeerClientImpl.BEER_PATH + "?pageNumber=2&pageSize=1");
+    }
+
+    @Test
+    void testBeerById() {
+        UUID beerId = UUID.randomUUID();
+
+        assertThat(beerUris.beerById(beerId))
+                .isEqualTo(new DefaultUriBuilderFactory(URL).expand(BeerClientImpl.BEER_BY_ID_PATH, beerId));
+    }
+
+    @Test
+    void testChanges() {
+        assertThat(beerUris.changes(Optional.empty(), Duration.ofSeconds(5)))
+                .isEqualTo(URI.create(URL + BeerClientImpl.BEER_CHANGES_PATH + "?waitSeconds=5"));
+        assertThat(beerUris.changes(Optional.of("a+b/c"), Duration.ofSeconds(5)).getQuery())
+                .isEqualTo("waitSeconds=5&cursor=a+b/c");
+        assertThat(beerUris.changes(Optional.of("a+b/c"), Duration.ofSeconds(5)).getRawQuery())
+                .isEqualTo("waitSeconds=5&cursor=a%2Bb%2Fc");
+    }
+}
@@ -0,0 +1,65 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BulkWriteReport;
+import guru.springframework.spring6resttemplate.model.BulkWriteResult;
+import guru.springframework.spring6resttemplate.model.BulkWriteStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkWritePipelineTest {
+
+    static final int ITEMS = 50_000;
+
+    @Test
+    void testReportsEveryItemWithBoundedConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        BulkWritePipeline pipeline = new BulkWritePipeline(executor, 100, 4);
+
+        Stream<BeerDTO> beers = IntStream.range(0, ITEMS)
+                .mapToObj(i -> BeerDTO.builder().quantityOnHand(i).beerName("Beer " + i).build());
+
+        long start = System.nanoTime();
+        BulkWriteReport report = pipeline.run(beers::iterator, BeerDTO::getId, beerDTO -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                int quantity = beerDTO.getQuantityOnHand();
+                if (quantity % 100 == 0) {
+                    throw HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", null, null, null);
+                }
+                if (quantity % 250 == 1) {
+                    throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null);
+                }
+                return Optional.of(beerDTO.toBuilder().id(UUID.randomUUID()).build());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        executor.shutdown();
+
+        assertThat(report.getResults()).hasSize(ITEMS);
+        assertThat(report.getResults()).extracting(BulkWriteResult::getIndex)
+                .containsExactlyElementsOf(IntStream.range(0, ITEMS).mapToObj(i -> (long) i).toList());
+        assertThat(report.count(BulkWriteStatus.CONFLICT)).isEqualTo(ITEMS / 100);
+        assertThat(report.count(BulkWriteStatus.FAILED)).isEqualTo(ITEMS / 250);
+        assertThat(report.count(BulkWriteStatus.SUCCESS)).isEqualTo(ITEMS - ITEMS / 100 - ITEMS / 250);
+        assertThat(report.getResults().get(2).getBeerId()).isNotNull();
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(4);
+        assertThat(elapsedMillis).isLessThan(30_000);
+    }
+}
@@ -0,0 +1,196 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+class CachingBeerClientTest {
+
+    static final String URL = "http://localhost:8080";
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    MockRestServiceServer mockServer;
+    MutableClock clock = new MutableClock();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CachingBeerClient beerClient;
+
+    RestTemplateBuilder restTemplateBuilder;
+
+    BeerDTO beerDto;
+    String payload;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        restTemplateBuilder = new RestTemplateBuilder().rootUri(URL)
+                .additionalCustomizers(restTemplate -> mockServer = MockRestServiceServer.bindTo(restTemplate).build());
+        beerClient = new CachingBeerClient(beerClientImpl(true), 100, Duration.ofSeconds(30), Duration.ofMinutes(10),
+                meterRegistry, clock);
+
+        beerDto = BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Mango Bobs")
+                .beerStyle(BeerStyle.IPA)
+                .price(new BigDecimal("10.99"))
+                .build();
+        payload = objectMapper.writeValueAsString(beerDto);
+    }
+
+    @Test
+    void testFreshEntryIsServedWithoutRequest() {
+        mockServer.expect(method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.BEER_BY_ID_PATH, beerDto.getId()))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        beerClient.getBeerById(beerDto.getId());
+        Optional<BeerDTO> cached = beerClient.getBeerById(beerDto.getId());
+
+        mockServer.verify();
+        assertThat(cached.get().getBeerName()).isEqualTo("Mango Bobs");
+        assertThat(beerClient.beerCacheStats().hitCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "beer.client.beers", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStaleEntryIsRevalidatedWithETag() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"1\"");
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON).headers(headers));
+        mockServer.expect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        beerClient.getBeerById(beerDto.getId());
+        clock.advance(Duration.ofMinutes(1));
+        Optional<BeerDTO> revalidated = beerClient.getBeerById(beerDto.getId());
+
+        mockServer.verify();
+        assertThat(revalidated.get().getId()).isEqualTo(beerDto.getId());
+        assertThat(beerClient.notModifiedCount()).isEqualTo(1);
+        assertThat(meterRegistry.counter("beer.client.cache.not.modified").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateWritesThrough() {
+        mockServer.expect(method(HttpMethod.PUT))
+                .andRespond(withNoContent());
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload.replace("Mango Bobs", "Mango Bobs 2"), MediaType.APPLICATION_JSON));
+
+        beerClient.updateBeer(beerDto);
+        Optional<BeerDTO> cached = beerClient.getBeerById(beerDto.getId());
+
+        mockServer.verify();
+        assertThat(cached.get().getBeerName()).isEqualTo("Mango Bobs 2");
+    }
+
+    @Test
+    void testUpdateOfCachedVersionSendsPatch() {
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.PATCH))
+                .andExpect(header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(content().json("{\"beerName\":\"Mango Bobs 2\"}", JsonCompareMode.STRICT))
+                .andRespond(withNoContent());
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload.replace("Mango Bobs", "Mango Bobs 2"), MediaType.APPLICATION_JSON));
+
+        BeerDTO beer = beerClient.getBeerById(beerDto.getId()).orElseThrow();
+        beer.setBeerName("Mango Bobs 2");
+        beerClient.updateBeer(beer);
+        Optional<BeerDTO> cached = beerClient.getBeerById(beerDto.getId());
+
+        mockServer.verify();
+        assertThat(cached.get().getBeerName()).isEqualTo("Mango Bobs 2");
+    }
+
+    @Test
+    void testUnchangedUpdateOfCachedVersionIsSkipped() {
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        BeerDTO beer = beerClient.getBeerById(beerDto.getId()).orElseThrow();
+        Optional<BeerDTO> updated = beerClient.updateBeer(beer);
+        beerClient.getBeerById(beerDto.getId());
+
+        mockServer.verify();
+        assertThat(updated).contains(beer);
+        assertThat(beerClient.beerCacheStats().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testWriteWithoutServerVersionIsNotCached() {
+        CachingBeerClient writeOnlyClient = new CachingBeerClient(beerClientImpl(false), 100, Duration.ofSeconds(30),
+                Duration.ofMinutes(10), new SimpleMeterRegistry(), clock);
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.PATCH))
+                .andRespond(withNoContent());
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload.replace("\"version\":1", "\"version\":2")
+                        .replace("Mango Bobs", "Mango Bobs 2"), MediaType.APPLICATION_JSON));
+
+        BeerDTO beer = writeOnlyClient.getBeerById(beerDto.getId()).orElseThrow();
+        beer.setBeerName("Mango Bobs 2");
+        Optional<BeerDTO> updated = writeOnlyClient.updateBeer(beer);
+        Optional<BeerDTO> reread = writeOnlyClient.getBeerById(beerDto.getId());
+
+        mockServer.verify();
+        assertThat(updated.get().getVersion()).isNull();
+        assertThat(reread.get().getVersion()).isEqualTo(2);
+        assertThat(writeOnlyClient.beerCacheStats().hitCount()).isEqualTo(1);
+    }
+
+    private BeerClientImpl beerClientImpl(boolean readAfterWrite) {
+        return new BeerClientImpl(restTemplateBuilder, 16, 2, readAfterWrite, 100, 8, Duration.ofSeconds(5), 1000,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package guru.springframework.spring6resttemplate.client;
+
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import guru.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefetchingPageIteratorTest {
+
+    static final int TOTAL_BEERS = 100_000;
+    static final int PAGE_SIZE = 1_000;
+    static final int PREFETCH_DEPTH = 2;
+
+    @Test
+    void testStreamsWholeCatalogueWithBoundedPrefetch() {
+        AtomicInteger pagesRequested = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        PrefetchingPageIterator iterator = new PrefetchingPageIterator(pageNumber -> {
+            pagesRequested.incrementAndGet();
+            return page(pageNumber);
+        }, executor, PREFETCH_DEPTH);
+
+        int count = 0;
+        int pagesConsumed = 0;
+        int maxPagesAhead = 0;
+        boolean fetchOverlappedConsumption = true;
+
+        while (iterator.hasNext()) {
+            BeerDTO beerDTO = iterator.next();
+            if (count % PAGE_SIZE == 0) {
+                pagesConsumed++;
+                maxPagesAhead = Math.max(maxPagesAhead, pagesRequested.get() - pagesConsumed);
+            }
+            if (count % PAGE_SIZE == PAGE_SIZE - 1 && pagesConsumed < TOTAL_BEERS / PAGE_SIZE) {
+                fetchOverlappedConsumption &= awaitRequested(pagesRequested, pagesConsumed + 1);
+            }
+            assertThat(beerDTO.getQuantityOnHand()).isEqualTo(count);
+            count++;
+        }
+        executor.shutdown();
+
+        assertThat(count).isEqualTo(TOTAL_BEERS);
+        assertThat(pagesRequested.get()).isEqualTo(TOTAL_BEERS / PAGE_SIZE);
+        assertThat(maxPagesAhead).isLessThanOrEqualTo(PREFETCH_DEPTH);
+        assertThat(fetchOverlappedConsumption).isTrue();
+    }
+
+    @Test
+    void testEmptyCatalogue() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        PrefetchingPageIterator iterator = new PrefetchingPageIterator(
+                pageNumber -> new BeerDTOPageImpl(List.of(), pageNumber - 1, PAGE_SIZE, 0), executor, PREFETCH_DEPTH);
+
+        assertThat(iterator.hasNext()).isFalse();
+        executor.shutdown();
+    }
+
+    private static boolean awaitRequested(AtomicInteger pagesRequested, int pageNumber) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (pagesRequested.get() < pageNumber) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    private static Page<BeerDTO> page(int pageNumber) {
+        List<BeerDTO> content = new ArrayList<>(PAGE_SIZE);
+        int offset = (pageNumber - 1) * PAGE_SIZE;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(BeerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .beerName("Beer " + (offset + i))
+                    .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                    .quantityOnHand(offset + i)
+                    .price(new BigDecimal("10.99"))
+                    .build());
+        }
+        return new BeerDTOPageImpl(content, pageNumber - 1, PAGE_SIZE, TOTAL_BEERS);
+    }
+}
@@ -0,0 +1,112 @@
+package guru.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6resttemplate.model.BeerDTO;
+import guru.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveBeerClientImplTest {
+
+    static final String URL = "http://localhost:8080";
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    List<BeerDTO> beers = IntStream.range(0, 5)
+            .mapToObj(i -> BeerDTO.builder().id(UUID.randomUUID()).beerName("Beer " + i).build())
+            .toList();
+    List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    ReactiveBeerClient beerClient;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl(URL)
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(respond(request));
+                })
+                .build();
+        beerClient = new ReactiveBeerClientImpl(webClient);
+    }
+
+    @Test
+    void testGetBeerById() {
+        BeerDTO beer = beers.get(3);
+
+        assertThat(beerClient.getBeerById(beer.getId()).block()).isEqualTo(beer);
+        assertThat(beerClient.getBeerById(UUID.randomUUID()).blockOptional()).isEmpty();
+        assertThat(requests.get(0).url().toString()).isEqualTo(URL + BeerClientImpl.BEER_PATH + "/" + beer.getId());
+        assertThat(requests.get(0).headers().getAccept()).containsExactly(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void testStreamBeersFetchesPagesOnDemand() {
+        List<BeerDTO> firstTwo = beerClient.streamBeers(Optional.of("Beer"), Optional.empty(), Optional.empty(), Optional.of(2))
+                .take(2)
+                .collectList()
+                .block();
+
+        assertThat(firstTwo).containsExactlyElementsOf(beers.subList(0, 2));
+        assertThat(requests).hasSize(1);
+
+        requests.clear();
+        List<BeerDTO> all = beerClient.streamBeers(Optional.of("Beer"), Optional.empty(), Optional.empty(), Optional.of(2))
+                .collectList()
+                .block();
+
+        assertThat(all).containsExactlyElementsOf(beers);
+        assertThat(requests).extracting(request -> request.url().getQuery())
+                .containsExactly("beerName=Beer&pageNumber=1&pageSize=2",
+                        "beerName=Beer&pageNumber=2&pageSize=2",
+                        "beerName=Beer&pageNumber=3&pageSize=2");
+    }
+
+    private ClientResponse respond(ClientRequest request) {
+        String path = request.url().getPath();
+        if (path.equals(BeerClientImpl.BEER_PATH)) {
+            Map<String, String> query = UriComponentsBuilder.fromUri(request.url()).build().getQueryParams().toSingleValueMap();
+            int pageNumber = Integer.parseInt(query.get("pageNumber"));
+            int pageSize = Integer.parseInt(query.get("pageSize"));
+            List<BeerDTO> content = new ArrayList<>(beers.subList(Math.min((pageNumber - 1) * pageSize, beers.size()),
+                    Math.min(pageNumber * pageSize, beers.size())));
+            return json(new BeerDTOPageImpl(content, pageNumber - 1, pageSize, beers.size()));
+        }
+
+        UUID beerId = UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+        return beers.stream()
+                .filter(beer -> beer.getId().equals(beerId))
+                .findFirst()
+                .map(this::json)
+                .orElseGet(() -> ClientResponse.create(HttpStatus.NOT_FOUND).build());
+    }
+
+    private ClientResponse json(Object body) {
+        try {
+            return ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(objectMapper.writeValueAsString(body))
+                    .build();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
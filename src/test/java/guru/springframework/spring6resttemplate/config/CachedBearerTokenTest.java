@@ -0,0 +1,125 @@
+package guru.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedBearerTokenTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    AtomicInteger fetches = new AtomicInteger();
+    volatile boolean tokenEndpointDown;
+    AtomicLong nanoTime = new AtomicLong(Long.MAX_VALUE - Duration.ofSeconds(30).toNanos());
+
+    @Test
+    void testDeadlinesFollowNanoTime() {
+        CachedBearerToken bearerToken = bearerToken(Duration.ofSeconds(100));
+
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-1");
+
+        // crosses the nanoTime overflow boundary on the way to the refresh window
+        advance(Duration.ofSeconds(89));
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-1");
+        assertThat(fetches.get()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(2));
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-1");
+        assertThat(fetches.get()).isEqualTo(2);
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-2");
+    }
+
+    @Test
+    void testExpiredTokenIsFetchedInline() {
+        CachedBearerToken bearerToken = bearerToken(Duration.ofSeconds(100));
+        bearerToken.bearerHeader();
+
+        advance(Duration.ofSeconds(101));
+
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-2");
+    }
+
+    @Test
+    void testFailedBackgroundRefreshBacksOff() {
+        CachedBearerToken bearerToken = bearerToken(Duration.ofSeconds(100));
+        bearerToken.bearerHeader();
+
+        tokenEndpointDown = true;
+        advance(Duration.ofSeconds(91));
+        callRepeatedly(bearerToken);
+        assertThat(fetches.get()).isEqualTo(2);
+
+        advance(Duration.ofMillis(900));
+        callRepeatedly(bearerToken);
+        assertThat(fetches.get()).isEqualTo(2);
+
+        advance(Duration.ofMillis(100));
+        callRepeatedly(bearerToken);
+        assertThat(fetches.get()).isEqualTo(3);
+
+        // the second backoff is two seconds
+        advance(Duration.ofMillis(1900));
+        callRepeatedly(bearerToken);
+        assertThat(fetches.get()).isEqualTo(3);
+
+        tokenEndpointDown = false;
+        advance(Duration.ofMillis(100));
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-1");
+        assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-4");
+        assertThat(fetches.get()).isEqualTo(4);
+    }
+
+    @Test
+    void testRefreshBackoffStaysUnderTimeLeftToExpiry() {
+        CachedBearerToken bearerToken = bearerToken(Duration.ofSeconds(100));
+        bearerToken.bearerHeader();
+
+        tokenEndpointDown = true;
+        advance(Duration.ofSeconds(91));
+        for (int i = 0; i < 5; i++) {
+            callRepeatedly(bearerToken);
+            advance(Duration.ofSeconds(1));
+        }
+        // backoffs of 1, 2 and then half of the remaining 6 seconds
+        assertThat(fetches.get()).isEqualTo(4);
+
+        advance(Duration.ofSeconds(2));
+        callRepeatedly(bearerToken);
+        assertThat(fetches.get()).isEqualTo(5);
+    }
+
+    private void callRepeatedly(CachedBearerToken bearerToken) {
+        for (int i = 0; i < 100; i++) {
+            assertThat(bearerToken.bearerHeader()).isEqualTo("Bearer token-1");
+        }
+    }
+
+    private CachedBearerToken bearerToken(Duration lifetime) {
+        // the wall clock stays put, so only the nanoTime source can move the deadlines
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        return new CachedBearerToken("springauth",
+                () -> {
+                    int fetch = fetches.incrementAndGet();
+                    if (tokenEndpointDown) {
+                        throw new IllegalStateException("token endpoint down");
+                    }
+                    return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "token-" + fetch, NOW,
+                            NOW.plus(lifetime));
+                },
+                Duration.ofSeconds(10), Runnable::run,
+                new SimpleMeterRegistry().counter("beer.client.oauth.refresh.failures"), clock, nanoTime::get);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,140 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerOperation;
+import guru.springframework.spring6resttemplate.client.CircuitBreakerOpenException;
+import guru.springframework.spring6resttemplate.config.CircuitBreakerInterceptor.CircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerInterceptorTest {
+
+    MutableClock clock = new MutableClock();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CircuitBreakerInterceptor interceptor;
+    AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("rest.template.circuitBreaker.slidingWindowSize", "10")
+                .withProperty("rest.template.circuitBreaker.minimumNumberOfCalls", "10")
+                .withProperty("rest.template.circuitBreaker.waitDurationInOpenState", "10s")
+                .withProperty("rest.template.circuitBreaker.permittedCallsInHalfOpenState", "2")
+                .withProperty("rest.template.circuitBreaker.getBeerById.slowCallDuration", "50ms");
+        interceptor = new CircuitBreakerInterceptor(environment, meterRegistry, clock);
+    }
+
+    @Test
+    void testOpensOnFailureRateAndRecoversThroughHalfOpen() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            call("/api/v1/beer", HttpStatus.OK);
+            call("/api/v1/beer", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertThat(interceptor.state(BeerOperation.LIST_BEERS)).isEqualTo(State.OPEN);
+        assertThat(interceptor.state(BeerOperation.GET_BEER_BY_ID)).isEqualTo(State.CLOSED);
+
+        int before = calls.get();
+        assertThatThrownBy(() -> call("/api/v1/beer", HttpStatus.OK))
+                .isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(calls.get()).isEqualTo(before);
+        assertThat(meterRegistry.counter("beer.client.circuit.rejected", "operation", "listBeers").count()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(11));
+        call("/api/v1/beer", HttpStatus.OK);
+        assertThat(interceptor.state(BeerOperation.LIST_BEERS)).isEqualTo(State.HALF_OPEN);
+        call("/api/v1/beer", HttpStatus.OK);
+        assertThat(interceptor.state(BeerOperation.LIST_BEERS)).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void testFailedTrialCallReopens() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            call("/api/v1/beer", HttpStatus.BAD_GATEWAY);
+        }
+        clock.advance(Duration.ofSeconds(11));
+        call("/api/v1/beer", HttpStatus.BAD_GATEWAY);
+        call("/api/v1/beer", HttpStatus.BAD_GATEWAY);
+
+        assertThat(interceptor.state(BeerOperation.LIST_BEERS)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void testOpensOnSlowCallsWithPerOperationThreshold() throws Exception {
+        String path = "/api/v1/beer/" + UUID.randomUUID();
+        ClientHttpRequestExecution slow = (request, body) -> {
+            sleep(60);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        for (int i = 0; i < 10; i++) {
+            interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost" + path)), new byte[0], slow);
+        }
+
+        assertThat(interceptor.state(BeerOperation.GET_BEER_BY_ID)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void testClientErrorsAreNotFailures() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            call("/api/v1/beer", HttpStatus.NOT_FOUND);
+        }
+        assertThat(interceptor.state(BeerOperation.LIST_BEERS)).isEqualTo(State.CLOSED);
+    }
+
+    private void call(String path, HttpStatus status) throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost" + path));
+        interceptor.intercept(request, new byte[0], (req, body) -> {
+            calls.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], status);
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.client.BeerOperation;
+import guru.springframework.spring6resttemplate.client.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitInterceptorTest {
+
+    @Test
+    void testShedsRequestsOverTheLimit() throws Exception {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(new MockEnvironment()
+                .withProperty("rest.template.limiter.enabled", "true")
+                .withProperty("rest.template.limiter.initialLimit", "2")
+                .withProperty("rest.template.limiter.minLimit", "2"), new SimpleMeterRegistry());
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> first = executor.submit(() -> blockingCall(interceptor, started, release));
+        Future<?> second = executor.submit(() -> blockingCall(interceptor, started, release));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> call(interceptor, "/api/v1/beer", HttpStatus.OK))
+                .isInstanceOf(ConcurrencyLimitExceededException.class);
+        call(interceptor, "/api/v1/beer/" + UUID.randomUUID(), HttpStatus.OK);
+
+        release.countDown();
+        first.get();
+        second.get();
+        executor.shutdown();
+        call(interceptor, "/api/v1/beer", HttpStatus.OK);
+    }
+
+    @Test
+    void testLimitShrinksOnErrorsAndGrowsUnderLoad() throws Exception {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(new MockEnvironment()
+                .withProperty("rest.template.limiter.enabled", "true")
+                .withProperty("rest.template.limiter.initialLimit", "10")
+                .withProperty("rest.template.limiter.minLimit", "2")
+                .withProperty("rest.template.limiter.getBeerById.minLimit", "10"), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 20; i++) {
+            call(interceptor, "/api/v1/beer", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertThat(interceptor.limit(BeerOperation.LIST_BEERS)).isEqualTo(2);
+        assertThat(interceptor.limit(BeerOperation.GET_BEER_BY_ID)).isEqualTo(10);
+
+        ConcurrencyLimitInterceptor.AdaptiveLimit limit = new ConcurrencyLimitInterceptor.AdaptiveLimit(10, 2, 12, 0.9, 2.0);
+        for (int i = 0; i < 10; i++) {
+            limit.release(limit.tryAcquire() + 5, 1_000_000, false);
+        }
+        assertThat(limit.limit()).isEqualTo(12);
+    }
+
+    @Test
+    void testDisabledByDefault() throws Exception {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(new MockEnvironment()
+                .withProperty("rest.template.limiter.initialLimit", "1")
+                .withProperty("rest.template.limiter.maxLimit", "1"), new SimpleMeterRegistry());
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> first = executor.submit(() -> blockingCall(interceptor, started, release));
+        Future<?> second = executor.submit(() -> blockingCall(interceptor, started, release));
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        first.get();
+        second.get();
+        executor.shutdown();
+    }
+
+    private static Void blockingCall(ConcurrencyLimitInterceptor interceptor, CountDownLatch started, CountDownLatch release)
+            throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/api/v1/beer"));
+        interceptor.intercept(request, new byte[0], (req, body) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+        return null;
+    }
+
+    private static void call(ConcurrencyLimitInterceptor interceptor, String path, HttpStatus status) throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost" + path));
+        interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], status));
+    }
+}
@@ -0,0 +1,55 @@
+package guru.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipRequestInterceptorTest {
+
+    @Test
+    void testCompressesLargeBodies() throws Exception {
+        GzipRequestInterceptor interceptor = new GzipRequestInterceptor(true, DataSize.ofBytes(1024));
+        byte[] body = "{\"beerName\":\"Mango Bobs\",\"beerStyle\":\"IPA\"},".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://localhost/api/v1/beer"));
+        AtomicReference<byte[]> sent = new AtomicReference<>();
+        interceptor.intercept(request, body, (req, bytes) -> {
+            sent.set(bytes);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.CREATED);
+        });
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(sent.get().length).isLessThan(body.length / 10);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent.get()))) {
+            assertThat(in.readAllBytes()).isEqualTo(body);
+        }
+    }
+
+    @Test
+    void testLeavesSmallBodiesAlone() throws Exception {
+        GzipRequestInterceptor interceptor = new GzipRequestInterceptor(true, DataSize.ofBytes(1024));
+        byte[] body = "{\"beerName\":\"Mango Bobs\"}".getBytes(StandardCharsets.UTF_8);
+
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.PUT, URI.create("http://localhost/api/v1/beer/1"));
+        AtomicReference<byte[]> sent = new AtomicReference<>();
+        interceptor.intercept(request, body, (req, bytes) -> {
+            sent.set(bytes);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.NO_CONTENT);
+        });
+
+        assertThat(request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(sent.get()).isSameAs(body);
+    }
+}
@@ -0,0 +1,208 @@
+package guru.springframework.spring6resttemplate.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LoadBalancingInterceptorTest {
+
+    static {
+        // without it the JDK server waits for delayed ACKs and every stub answers in ~40 ms, hiding the slow replica
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    CircuitBreakerInterceptorTest.MutableClock clock = new CircuitBreakerInterceptorTest.MutableClock();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Replica fast;
+    Replica slow;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fast = new Replica();
+        slow = new Replica();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fast.server.stop(0);
+        slow.server.stop(0);
+    }
+
+    @Test
+    void testRequestsMoveAwayFromSlowReplica() {
+        // the client's own first requests are slow; keep that from being mistaken for replica latency
+        RestTemplate plain = new RestTemplate();
+        for (int i = 0; i < 20; i++) {
+            plain.getForObject(fast.url() + "/api/v1/beer", String.class);
+            plain.getForObject(slow.url() + "/api/v1/beer", String.class);
+        }
+        fast.requests.set(0);
+        slow.requests.set(0);
+
+        slow.delayMillis = 30;
+        RestTemplate restTemplate = restTemplate(new LoadBalancingInterceptor(List.of(fast.url(), slow.url()),
+                Duration.ofSeconds(10), 50, 10, 20, Duration.ofSeconds(30), meterRegistry, clock));
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(restTemplate.getForObject("/api/v1/beer", String.class)).isEqualTo("[]");
+        }
+
+        assertThat(fast.requests.get() + slow.requests.get()).isEqualTo(200);
+        assertThat(slow.requests.get()).isLessThan(20);
+    }
+
+    @Test
+    void testFailingReplicaIsEjectedAndProbedBackIn() {
+        // latency decays within a millisecond, so replicas are picked at random and only failures matter
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(List.of(fast.url(), slow.url()),
+                Duration.ofMillis(1), 50, 4, 4, Duration.ofSeconds(30), meterRegistry, clock);
+        RestTemplate restTemplate = restTemplate(interceptor);
+        slow.status = 503;
+
+        for (int i = 0; i < 100; i++) {
+            try {
+                restTemplate.getForObject("/api/v1/beer", String.class);
+            } catch (HttpServerErrorException.ServiceUnavailable ex) {
+                // counted against the failing replica
+            }
+        }
+        assertThat(interceptor.isEjected(slow.url())).isTrue();
+        assertThat(slow.requests.get()).isEqualTo(4);
+        assertThat(meterRegistry.counter("beer.client.loadbalancer.ejections", "host", slow.authority()).count()).isEqualTo(1);
+
+        slow.status = 200;
+        clock.advance(Duration.ofSeconds(31));
+        for (int i = 0; i < 2000 && slow.requests.get() == 4; i++) {
+            restTemplate.getForObject("/api/v1/beer", String.class);
+        }
+
+        assertThat(interceptor.isEjected(slow.url())).isFalse();
+        assertThat(slow.requests.get()).isEqualTo(5);
+    }
+
+    @Test
+    void testFailedAttemptsCountEvenWhenARetrySucceeds() {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(List.of(fast.url(), slow.url()),
+                Duration.ofMillis(1), 50, 4, 4, Duration.ofSeconds(30), meterRegistry, clock);
+        RetryInterceptor retryInterceptor = new RetryInterceptor(mock(OAuthClientInterceptor.class), 3, Duration.ofMillis(1),
+                Duration.ofMillis(5), 1.0, 100, false, Duration.ofMillis(10), meterRegistry);
+        RestTemplate restTemplate = restTemplate(interceptor, retryInterceptor);
+        // every call to the slow replica fails twice and then succeeds on the third attempt
+        slow.failingAttempts = 2;
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertThat(restTemplate.getForObject("/api/v1/beer", String.class)).isEqualTo("[]");
+            }
+        } finally {
+            retryInterceptor.destroy();
+        }
+
+        assertThat(interceptor.isEjected(slow.url())).isTrue();
+        assertThat(meterRegistry.counter("beer.client.loadbalancer.ejections", "host", slow.authority()).count()).isEqualTo(1);
+    }
+
+    @Test
+    void testOnlyTheProbeDecidesWhetherAnEjectedReplicaComesBack() {
+        LoadBalancingInterceptor.Replica replica = new LoadBalancingInterceptor.Replica(URI.create(slow.url()),
+                Duration.ofSeconds(10).toNanos(), 50, 2, 2, Duration.ofSeconds(30), meterRegistry, clock);
+        LoadBalancingInterceptor.Permit first = replica.tryAcquire();
+        LoadBalancingInterceptor.Permit second = replica.tryAcquire();
+        LoadBalancingInterceptor.Permit lateSuccess = replica.tryAcquire();
+        LoadBalancingInterceptor.Permit lateFailure = replica.tryAcquire();
+
+        replica.record(first, true, 1_000_000);
+        replica.record(second, true, 1_000_000);
+        assertThat(replica.isEjected()).isTrue();
+
+        // requests sent before the ejection finish while it lasts
+        replica.record(lateSuccess, false, 1_000_000);
+        replica.record(lateFailure, true, 1_000_000);
+        assertThat(meterRegistry.counter("beer.client.loadbalancer.ejections", "host", slow.authority()).count()).isEqualTo(1);
+        assertThat(replica.ejectedUntil()).isEqualTo(clock.instant().plus(Duration.ofSeconds(30)));
+
+        clock.advance(Duration.ofSeconds(31));
+        LoadBalancingInterceptor.Permit probe = replica.tryAcquire();
+        assertThat(probe.probe()).isTrue();
+        assertThat(replica.tryAcquire()).isNull();
+
+        replica.record(probe, false, 1_000_000);
+        assertThat(replica.tryAcquire().probe()).isFalse();
+    }
+
+    @Test
+    void testChangeFeedPollsDoNotCountAsLatency() {
+        RestTemplate restTemplate = restTemplate(new LoadBalancingInterceptor(List.of(slow.url()),
+                Duration.ofSeconds(10), 50, 10, 20, Duration.ofSeconds(30), meterRegistry, clock));
+        restTemplate.getForObject("/api/v1/beer", String.class);
+        Gauge latency = meterRegistry.get("beer.client.loadbalancer.latency").tag("host", slow.authority()).gauge();
+        double beforePoll = latency.value();
+
+        slow.delayMillis = 500;
+        restTemplate.getForObject("/api/v1/beer/changes", String.class);
+
+        assertThat(slow.requests.get()).isEqualTo(2);
+        // only decayed since the first request, never raised by the poll
+        assertThat(latency.value()).isGreaterThan(0).isLessThanOrEqualTo(beforePoll);
+    }
+
+    private RestTemplate restTemplate(ClientHttpRequestInterceptor... interceptors) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:8080"));
+        restTemplate.getInterceptors().addAll(List.of(interceptors));
+        return restTemplate;
+    }
+
+    static class Replica {
+        final HttpServer server;
+        final AtomicInteger requests = new AtomicInteger();
+        volatile long delayMillis;
+        volatile int status = 200;
+        volatile int failingAttempts;
+
+        Replica() throws Exception {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/api/v1/beer", exchange -> {
+                int request = requests.incrementAndGet();
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] payload = "[]".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(request % (failingAttempts + 1) == 0 ? status : 503, payload.length);
+                exchange.getResponseBody().write(payload);
+                exchange.close();
+            });
+            server.start();
+        }
+
+        String authority() {
+            return "localhost:" + server.getAddress().getPort();
+        }
+
+        String url() {
+            return "http://" + authority();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package guru.springframework.spring6resttemplate.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OAuthClientInterceptorTest {
+
+    HttpServer tokenServer;
+    AtomicInteger tokenRequests = new AtomicInteger();
+    volatile int expiresIn = 3600;
+    volatile boolean tokenEndpointDown;
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CountDownLatch slowTokenEndpoint = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        tokenServer.setExecutor(Executors.newCachedThreadPool());
+        tokenServer.createContext("/oauth2/token", exchange -> {
+            int count = tokenRequests.incrementAndGet();
+            sleep(50);
+            if (tokenEndpointDown) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            byte[] payload = ("{\"access_token\":\"token-" + count + "\",\"token_type\":\"Bearer\",\"expires_in\":" + expiresIn + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+            exchange.close();
+        });
+        tokenServer.createContext("/slow/oauth2/token", exchange -> {
+            try {
+                slowTokenEndpoint.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] payload = "{\"access_token\":\"slow-token\",\"token_type\":\"Bearer\",\"expires_in\":3600}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+            exchange.close();
+        });
+        tokenServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenServer.stop(0);
+    }
+
+    @Test
+    void testConcurrentCallersFetchTokenOnce() throws Exception {
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(60));
+
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> headers = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    headers.add(intercept(interceptor));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(tokenRequests.get()).isEqualTo(1);
+        assertThat(headers).containsExactly("Bearer token-1");
+    }
+
+    @Test
+    void testTokenIsRefreshedInBackgroundBeforeExpiry() throws Exception {
+        expiresIn = 4;
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(3));
+
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+
+        sleep(2200);
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+        for (int i = 0; i < 10; i++) {
+            intercept(interceptor);
+        }
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (tokenRequests.get() < 2 && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        sleep(100);
+
+        assertThat(tokenRequests.get()).isEqualTo(2);
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-2");
+    }
+
+    @Test
+    void testFailedBackgroundRefreshIsCountedAndCurrentTokenKept() throws Exception {
+        expiresIn = 4;
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(3));
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+
+        tokenEndpointDown = true;
+        sleep(2200);
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (meterRegistry.counter("beer.client.oauth.refresh.failures").count() < 1
+                && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+
+        assertThat(meterRegistry.counter("beer.client.oauth.refresh.failures").count()).isEqualTo(1);
+
+        // the next background attempt waits out its backoff instead of following every request
+        for (int i = 0; i < 50; i++) {
+            assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+        }
+        sleep(100);
+        assertThat(tokenRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testUnauthorizedResponseIsRetriedWithNewToken() throws Exception {
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(60));
+        RetryInterceptor retryInterceptor = new RetryInterceptor(interceptor, 3, Duration.ofMillis(1), Duration.ofMillis(5),
+                0.1, 10, false, Duration.ofMillis(10), meterRegistry);
+        List<String> sentHeaders = new ArrayList<>();
+
+        try {
+            MockClientHttpRequest request = new MockClientHttpRequest();
+            ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+                    (req, body) -> retryInterceptor.intercept(req, body, (attempt, attemptBody) -> {
+                        sentHeaders.add(attempt.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+                        return new MockClientHttpResponse(new byte[0],
+                                sentHeaders.size() == 1 ? HttpStatus.UNAUTHORIZED : HttpStatus.OK);
+                    }));
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        } finally {
+            retryInterceptor.destroy();
+        }
+
+        assertThat(sentHeaders).containsExactly("Bearer token-1", "Bearer token-2");
+        assertThat(tokenRequests.get()).isEqualTo(2);
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-2");
+    }
+
+    @Test
+    void testSlowTenantDoesNotBlockOtherTenants() throws Exception {
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(60));
+        assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> slowTenant = executor.submit(() -> ClientRegistrationContext.callAs("slow", () -> {
+            try {
+                return intercept(interceptor);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        // the slow tenant's token fetch is parked on the server while the default tenant keeps going
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertThat(intercept(interceptor)).isEqualTo("Bearer token-1");
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(slowTenant.isDone()).isFalse();
+
+        slowTokenEndpoint.countDown();
+        assertThat(slowTenant.get(5, TimeUnit.SECONDS)).isEqualTo("Bearer slow-token");
+        executor.shutdown();
+    }
+
+    @Test
+    void testRequestAttributeTakesPrecedenceOverContext() throws Exception {
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(60));
+        slowTokenEndpoint.countDown();
+
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        request.getAttributes().put(ClientRegistrationContext.ATTRIBUTE, "slow");
+        ClientRegistrationContext.runAs("springauth", () -> {
+            try {
+                interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer slow-token");
+        assertThat(ClientRegistrationContext.current()).isNull();
+    }
+
+    @Test
+    void testUnknownRegistrationIsRejected() {
+        OAuthClientInterceptor interceptor = interceptor(Duration.ofSeconds(60));
+
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        request.getAttributes().put(ClientRegistrationContext.ATTRIBUTE, "unknown");
+
+        assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown");
+    }
+
+    private OAuthClientInterceptor interceptor(Duration tokenRefreshSkew) {
+        String tokenServerUrl = "http://localhost:" + tokenServer.getAddress().getPort();
+        var repository = new InMemoryClientRegistrationRepository(ClientRegistration
+                .withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("test")
+                .clientSecret("secret")
+                .tokenUri(tokenServerUrl + "/oauth2/token")
+                .build(), ClientRegistration
+                .withRegistrationId("slow")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("slow-tenant")
+                .clientSecret("secret")
+                .tokenUri(tokenServerUrl + "/slow/oauth2/token")
+                .build());
+
+        var authorizedClientService = new InMemoryOAuth2AuthorizedClientService(repository);
+        var manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(repository, authorizedClientService);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials(clientCredentials -> clientCredentials.clockSkew(tokenRefreshSkew))
+                .build());
+
+        return new OAuthClientInterceptor(manager, repository, authorizedClientService, tokenRefreshSkew, 1000,
+                Duration.ofHours(1), meterRegistry);
+    }
+
+    private static String intercept(OAuthClientInterceptor interceptor) throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest();
+        interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse());
+        return request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
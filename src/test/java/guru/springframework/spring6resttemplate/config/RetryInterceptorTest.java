@@ -0,0 +1,155 @@
+package guru.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RetryInterceptorTest {
+
+    OAuthClientInterceptor oAuthClientInterceptor = mock(OAuthClientInterceptor.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    RetryInterceptor interceptor;
+
+    @AfterEach
+    void tearDown() {
+        if (interceptor != null) {
+            interceptor.destroy();
+        }
+    }
+
+    @Test
+    void testRetriesIdempotentRequestOnServiceUnavailable() throws Exception {
+        interceptor = interceptor(3, 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        ClientHttpResponse response = interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) ->
+                calls.incrementAndGet() < 3 ? status(HttpStatus.SERVICE_UNAVAILABLE) : status(HttpStatus.OK));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.counter("beer.client.retries").count()).isEqualTo(2);
+    }
+
+    @Test
+    void testRetriesIoExceptionUpToMaxAttempts() {
+        interceptor = interceptor(3, 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> interceptor.intercept(request(HttpMethod.PUT), new byte[0], (req, body) -> {
+            calls.incrementAndGet();
+            throw new SocketTimeoutException("Read timed out");
+        })).isInstanceOf(SocketTimeoutException.class);
+
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testDoesNotRetryPost() throws Exception {
+        interceptor = interceptor(3, 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        ClientHttpResponse response = interceptor.intercept(request(HttpMethod.POST), new byte[0], (req, body) -> {
+            calls.incrementAndGet();
+            return status(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testRetryBudgetBoundsAmplification() throws Exception {
+        interceptor = interceptor(5, 2, false);
+        AtomicInteger calls = new AtomicInteger();
+        ClientHttpRequestExecution failing = (req, body) -> {
+            calls.incrementAndGet();
+            return status(HttpStatus.SERVICE_UNAVAILABLE);
+        };
+
+        for (int i = 0; i < 100; i++) {
+            interceptor.intercept(request(HttpMethod.GET), new byte[0], failing);
+        }
+
+        // 2 starting tokens plus 0.1 per request
+        assertThat(calls.get()).isLessThanOrEqualTo(100 + 2 + 10);
+        assertThat(meterRegistry.counter("beer.client.retries.throttled").count()).isGreaterThan(0);
+    }
+
+    @Test
+    void testReauthorizesOnceOnUnauthorized() throws Exception {
+        interceptor = interceptor(3, 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        ClientHttpResponse response = interceptor.intercept(request(HttpMethod.POST), new byte[0], (req, body) -> {
+            calls.incrementAndGet();
+            return status(HttpStatus.UNAUTHORIZED);
+        });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(calls.get()).isEqualTo(2);
+        verify(oAuthClientInterceptor, times(1)).reauthorize(any());
+    }
+
+    @Test
+    void testHedgesSlowRead() throws Exception {
+        interceptor = interceptor(1, 10, true);
+        for (int i = 0; i < 64; i++) {
+            interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) -> status(HttpStatus.OK));
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        long start = System.nanoTime();
+        ClientHttpResponse response = interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(2000);
+                return status(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return status(HttpStatus.OK);
+        });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(meterRegistry.counter("beer.client.hedges").count()).isEqualTo(1);
+    }
+
+    private RetryInterceptor interceptor(int maxAttempts, int budgetMaxTokens, boolean hedgeEnabled) {
+        return new RetryInterceptor(oAuthClientInterceptor, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5),
+                0.1, budgetMaxTokens, hedgeEnabled, Duration.ofMillis(20), meterRegistry);
+    }
+
+    private static MockClientHttpRequest request(HttpMethod method) {
+        return new MockClientHttpRequest(method, URI.create("http://localhost/api/v1/beer"));
+    }
+
+    private static ClientHttpResponse status(HttpStatus status) {
+        return new MockClientHttpResponse(new byte[0], status);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
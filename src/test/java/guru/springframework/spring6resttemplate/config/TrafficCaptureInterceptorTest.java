@@ -0,0 +1,104 @@
+package guru.springframework.spring6resttemplate.config;
+
+import guru.springframework.spring6resttemplate.config.TrafficCaptureInterceptor.CapturedExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class TrafficCaptureInterceptorTest {
+
+    @TempDir
+    Path tempDir;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRecordsExchangesWithoutHeaders() throws Exception {
+        Path file = tempDir.resolve("traffic.capture");
+        TrafficCaptureInterceptor interceptor = new TrafficCaptureInterceptor(true, file, DataSize.ofKilobytes(64), meterRegistry);
+        RestTemplate restTemplate = restTemplate(interceptor);
+        MockRestServiceServer mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[1,2,3]", MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        mockServer.expect(method(HttpMethod.GET))
+                .andRespond(withException(new SocketTimeoutException("timed out")));
+
+        restTemplate.getForObject("/api/v1/beer?beerName={beerName}&pageSize=25", String.class, "Pale Ale");
+        restTemplate.postForObject("/api/v1/beer", "{\"beerName\":\"Mango Bobs\"}", String.class);
+        assertThatThrownBy(() -> restTemplate.getForObject("/api/v1/beer/42", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        interceptor.destroy();
+
+        List<CapturedExchange> exchanges = TrafficCaptureInterceptor.read(file);
+
+        assertThat(exchanges).hasSize(3);
+        assertThat(exchanges.get(0).method()).isEqualTo(HttpMethod.GET);
+        assertThat(exchanges.get(0).uri()).isEqualTo("/api/v1/beer?beerName=Pale%20Ale&pageSize=25");
+        assertThat(exchanges.get(0).status()).isEqualTo(200);
+        assertThat(exchanges.get(0).responseBytes()).isEqualTo(7);
+        assertThat(exchanges.get(0).durationNanos()).isPositive();
+        assertThat(exchanges.get(1).method()).isEqualTo(HttpMethod.POST);
+        assertThat(new String(exchanges.get(1).body(), StandardCharsets.UTF_8)).isEqualTo("{\"beerName\":\"Mango Bobs\"}");
+        assertThat(exchanges.get(2).uri()).isEqualTo("/api/v1/beer/42");
+        assertThat(exchanges.get(2).status()).isZero();
+        assertThat(exchanges.get(1).startEpochNanos()).isGreaterThanOrEqualTo(exchanges.get(0).startEpochNanos());
+        assertThat(meterRegistry.counter("beer.client.capture.records").count()).isEqualTo(3);
+    }
+
+    @Test
+    void testDropsExchangesOnceFull() throws Exception {
+        Path file = tempDir.resolve("small.capture");
+        TrafficCaptureInterceptor interceptor = new TrafficCaptureInterceptor(true, file, DataSize.ofBytes(200), meterRegistry);
+        RestTemplate restTemplate = restTemplate(interceptor);
+        MockRestServiceServer mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+
+        mockServer.expect(ExpectedCount.times(5), method(HttpMethod.GET))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        for (int i = 0; i < 5; i++) {
+            restTemplate.getForObject("/api/v1/beer", String.class);
+        }
+        interceptor.destroy();
+
+        assertThat(TrafficCaptureInterceptor.read(file)).hasSize(3);
+        assertThat(meterRegistry.counter("beer.client.capture.dropped").count()).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsFilesThatAreNotCaptures() throws Exception {
+        Path file = tempDir.resolve("other.bin");
+        Files.writeString(file, "not a capture");
+
+        assertThatThrownBy(() -> TrafficCaptureInterceptor.read(file)).isInstanceOf(IOException.class);
+    }
+
+    private static RestTemplate restTemplate(TrafficCaptureInterceptor interceptor) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:8080"));
+        restTemplate.getInterceptors().add(interceptor);
+        return restTemplate;
+    }
+}
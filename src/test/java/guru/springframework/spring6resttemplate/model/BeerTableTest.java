@@ -0,0 +1,113 @@
+package guru.springframework.spring6resttemplate.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BeerTableTest {
+
+    BeerTable table = new BeerTable(2);
+
+    @Test
+    void testViewsEqualTheStoredBeers() {
+        List<BeerDTO> beers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            beers.add(beer(i));
+        }
+        beers.add(BeerDTO.builder().beerName("Unknown").build());
+        beers.forEach(table::put);
+
+        assertThat(table.size()).isEqualTo(101);
+        for (int row = 0; row < beers.size(); row++) {
+            assertThat(table.get(row)).isEqualTo(beers.get(row)).hasSameHashCodeAs(beers.get(row));
+            assertThat(table.get(row).toBuilder().build()).isEqualTo(beers.get(row));
+        }
+        assertThat(table.rowOf(beers.get(42).getId())).isEqualTo(42);
+        assertThat(table.rowOf(UUID.randomUUID())).isEqualTo(-1);
+        assertThat(table.get(100).getPrice()).isNull();
+        assertThat(table.get(100).getCreatedDate()).isNull();
+    }
+
+    @Test
+    void testPutReplacesBeerWithSameId() {
+        BeerDTO beer = beer(1);
+        table.put(beer);
+
+        int row = table.put(beer.toBuilder().beerName("Renamed").price(new BigDecimal("0.125")).build());
+
+        assertThat(row).isZero();
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.beerName(0)).isEqualTo("Renamed");
+        assertThat(table.price(0)).isEqualTo(new BigDecimal("0.125"));
+    }
+
+    @Test
+    void testForEachReusesOneReadOnlyView() {
+        table.put(beer(1));
+        table.put(beer(2));
+        List<BeerDTO> visited = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        table.forEach(beer -> {
+            visited.add(beer);
+            names.add(beer.getBeerName());
+        });
+
+        assertThat(names).containsExactly("Beer 1", "Beer 2");
+        assertThat(visited.get(0)).isSameAs(visited.get(1));
+        assertThatThrownBy(() -> table.get(0).setBeerName("Changed")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testNilUuidIsAnIdLikeAnyOther() {
+        UUID nil = new UUID(0, 0);
+        table.put(beer(1).toBuilder().id(nil).build());
+        table.put(BeerDTO.builder().beerName("Unknown").build());
+
+        int row = table.put(beer(2).toBuilder().id(nil).build());
+
+        assertThat(row).isZero();
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.id(0)).isEqualTo(nil);
+        assertThat(table.rowOf(nil)).isZero();
+        assertThat(table.beerName(0)).isEqualTo("Beer 2");
+        assertThat(table.id(1)).isNull();
+    }
+
+    @Test
+    void testDateOutsideEpochNanosIsRejected() {
+        table.put(beer(1));
+        BeerDTO tooEarly = beer(2).toBuilder().createdDate(LocalDateTime.of(1600, 1, 1, 0, 0)).build();
+        BeerDTO tooLate = beer(3).toBuilder().updateDate(LocalDateTime.of(2300, 1, 1, 0, 0)).build();
+
+        assertThatThrownBy(() -> table.put(tooEarly)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> table.put(tooLate)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> table.put(table.get(0).toBuilder().updateDate(LocalDateTime.MAX).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.get(0)).isEqualTo(beer(1).toBuilder().id(table.id(0)).updateDate(table.updateDate(0)).build());
+        assertThat(table.put(beer(4).toBuilder().createdDate(LocalDateTime.of(2262, 4, 11, 0, 0)).build())).isEqualTo(1);
+    }
+
+    private static BeerDTO beer(int i) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(i % 3)
+                .beerName("Beer " + i)
+                .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                .upc(i % 2 == 0 ? "123456" : "654321")
+                .quantityOnHand(i)
+                .price(new BigDecimal("12.99"))
+                .createdDate(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456789))
+                .updateDate(LocalDateTime.now())
+                .build();
+    }
+}